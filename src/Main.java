@@ -1,11 +1,17 @@
 import main.dto.Person;
+import main.dto.WarmUpProgress;
 import main.enums.Type;
-import main.repository.PersonRepository;
+import main.replication.ReplicationFollower;
+import main.replication.ReplicationLeader;
+import main.repository.ChangeLog;
+import main.repository.SnapshotPersonRepository;
 import main.repository.XmlPersonRepository;
+import main.service.ChangeFeed;
 import main.service.PersonService;
 import main.validation.Validators;
 import main.exception.ValidationException;
 
+import java.net.InetAddress;
 import java.nio.file.Path;
 import java.util.List;
 import java.util.Optional;
@@ -13,31 +19,64 @@ import java.util.Scanner;
 import java.util.UUID;
 
 public class Main {
+    private static final int DEFAULT_WARMUP_THREADS = 1;
+    private static final int DEFAULT_WARMUP_RATE = 2_000;
 
     public static void main(String[] args) throws Exception {
         Scanner sc = new Scanner(System.in);
 
         Path root = Path.of("data");
-        PersonRepository repo = new XmlPersonRepository(root);
-        PersonService service = new PersonService(repo);
+        // the background load is throttled so it does not compete with serving;
+        // --warmup-threads=<n> and --warmup-rate=<records per second, 0 = no limit> tune it
+        int warmUpThreads = intOption(args, "--warmup-threads=", DEFAULT_WARMUP_THREADS);
+        int warmUpRate = intOption(args, "--warmup-rate=", DEFAULT_WARMUP_RATE);
+        SnapshotPersonRepository repo = SnapshotPersonRepository.warmUp(
+                new XmlPersonRepository(root, true), warmUpThreads, warmUpRate);
+
+        // --leader=<port> ships changes to followers (on loopback unless --leader-bind=<address>);
+        // --follow=<host:port> mirrors a leader and makes this instance read-only
+        String leaderPort = option(args, "--leader=");
+        String leaderBind = option(args, "--leader-bind=");
+        String follow = option(args, "--follow=");
+        boolean readOnly = follow != null;
+        ChangeFeed feed = leaderPort == null ? null : new ChangeFeed(new ChangeLog(root.resolve("changes.log")));
+        PersonService service = new PersonService(repo, feed);
+        if (feed != null) {
+            InetAddress bind = leaderBind == null ? InetAddress.getLoopbackAddress() : InetAddress.getByName(leaderBind);
+            ReplicationLeader leader = new ReplicationLeader(repo, feed, Integer.parseInt(leaderPort), bind);
+            System.out.println("Replication leader listening on " + bind.getHostAddress() + ":" + leader.port());
+        }
+        if (readOnly) {
+            int colon = follow.lastIndexOf(':');
+            new ReplicationFollower(repo, follow.substring(0, colon),
+                    Integer.parseInt(follow.substring(colon + 1)), root.resolve("replication.offset"));
+            System.out.println("Following " + follow + " (read-only); make changes on the leader.");
+        }
 
         while (true) {
             System.out.println("\n=========== MENU ===========");
-            System.out.println("1. Add an employee");
+            if (!readOnly) System.out.println("1. Add an employee");
             System.out.println("2. Find employee");
-            System.out.println("3. Delete employee");
-            System.out.println("4. Update employee");
+            if (!readOnly) System.out.println("3. Delete employee");
+            if (!readOnly) System.out.println("4. Update employee");
             System.out.println("5. List all employees");
+            System.out.println("6. Show loading status");
             System.out.println("0. Quit");
             System.out.print("Choose an option: ");
             String choice = sc.nextLine().trim();
 
+            if (readOnly && List.of("1", "3", "4").contains(choice)) {
+                System.out.println("⚠️ This instance follows a leader and is read-only; make changes on the leader.");
+                continue;
+            }
+
             switch (choice) {
                 case "1" -> addPerson(sc, service);
                 case "2" -> findPerson(sc, service);
                 case "3" -> removePerson(sc, service);
                 case "4" -> modifyPerson(sc, service);
                 case "5" -> listAll(service);
+                case "6" -> showStatus(repo);
                 case "0" -> {
                     System.out.println("End. See you later!");
                     return;
@@ -157,6 +196,18 @@ public class Main {
         }
     }
 
+    private static void showStatus(SnapshotPersonRepository repo) {
+        WarmUpProgress progress = repo.progress();
+        if (progress.failure() != null) {
+            System.out.println("\n⚠️ Loading failed after " + progress.loaded() + " employees: " + progress.failure());
+        } else if (progress.ready()) {
+            System.out.println("\nIndex ready: " + progress.loaded() + " employees in memory.");
+        } else {
+            String total = progress.total() < 0 ? "?" : String.valueOf(progress.total());
+            System.out.println("\nLoading: " + progress.loaded() + " / " + total + " employees.");
+        }
+    }
+
     private static void printPersons(List<Person> persons) {
         int i = 1;
         for (Person p : persons) {
@@ -176,6 +227,18 @@ public class Main {
         System.out.println("PESEL:     " + p.pesel());
     }
 
+    private static String option(String[] args, String prefix) {
+        for (String a : args) {
+            if (a.startsWith(prefix)) return a.substring(prefix.length());
+        }
+        return null;
+    }
+
+    private static int intOption(String[] args, String prefix, int defaultValue) {
+        String v = option(args, prefix);
+        return v == null ? defaultValue : Integer.parseInt(v.trim());
+    }
+
     private static String emptyToNull(String s) {
         return (s == null || s.isBlank()) ? null : s.trim();
     }
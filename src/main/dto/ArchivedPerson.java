@@ -0,0 +1,9 @@
+package main.dto;
+
+import java.time.Instant;
+
+public record ArchivedPerson(
+        Person person,
+        Instant archivedAt
+) {
+}
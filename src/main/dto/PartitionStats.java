@@ -0,0 +1,10 @@
+package main.dto;
+
+import main.enums.Type;
+
+public record PartitionStats(
+        Type type,
+        long records,
+        long bytes
+) {
+}
@@ -0,0 +1,15 @@
+package main.dto;
+
+import main.enums.ChangeKind;
+
+import java.time.Instant;
+
+public record PersonChange(
+        long sequence,
+        ChangeKind kind,
+        String personId,
+        Person before,
+        Person after,
+        Instant at
+) {
+}
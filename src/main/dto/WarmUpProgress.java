@@ -0,0 +1,9 @@
+package main.dto;
+
+public record WarmUpProgress(
+        long loaded,
+        long total,
+        boolean ready,
+        String failure
+) {
+}
@@ -0,0 +1,5 @@
+package main.enums;
+
+public enum ChangeKind {
+    CREATE, UPDATE, REMOVE, ARCHIVE
+}
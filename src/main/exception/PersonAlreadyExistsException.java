@@ -1,5 +1,5 @@
-package main.exception;
-
-public class PersonAlreadyExistsException extends RuntimeException {
-    public PersonAlreadyExistsException(String msg) { super(msg); }
-}
+package main.exception;
+
+public class PersonAlreadyExistsException extends RuntimeException {
+    public PersonAlreadyExistsException(String msg) { super(msg); }
+}
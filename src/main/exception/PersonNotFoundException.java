@@ -1,6 +1,6 @@
-package main.exception;
-
-
-public class PersonNotFoundException extends RuntimeException {
-    public PersonNotFoundException(String msg) { super(msg); }
-}
+package main.exception;
+
+
+public class PersonNotFoundException extends RuntimeException {
+    public PersonNotFoundException(String msg) { super(msg); }
+}
@@ -1,5 +1,5 @@
-package main.exception;
-
-public class ValidationException extends RuntimeException {
-    public ValidationException(String msg) { super(msg); }
-}
+package main.exception;
+
+public class ValidationException extends RuntimeException {
+    public ValidationException(String msg) { super(msg); }
+}
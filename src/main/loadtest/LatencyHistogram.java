@@ -0,0 +1,67 @@
+package main.loadtest;
+
+/**
+ * Log-linear latency histogram in the spirit of HdrHistogram.
+ * <p>
+ * Values below {@code 2^SUB_BUCKET_BITS} are counted exactly; above that every power-of-two
+ * range is split into {@code 2^(SUB_BUCKET_BITS-1)} equal buckets, which bounds the relative
+ * error of any reported percentile to under 1%. Not thread-safe: record on one thread and
+ * {@link #add} histograms together afterwards.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 8;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int HALF = SUB_BUCKETS / 2;
+
+    private final long[] counts = new long[SUB_BUCKETS + (64 - SUB_BUCKET_BITS) * HALF];
+    private long total;
+    private long max;
+    private double sum;
+
+    public void record(long value) {
+        if (value < 0) value = 0;
+        counts[indexOf(value)]++;
+        total++;
+        sum += value;
+        if (value > max) max = value;
+    }
+
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < counts.length; i++) counts[i] += other.counts[i];
+        total += other.total;
+        sum += other.sum;
+        max = Math.max(max, other.max);
+    }
+
+    public long count() { return total; }
+
+    public long max() { return max; }
+
+    public double mean() { return total == 0 ? 0 : sum / total; }
+
+    /** Smallest recorded bucket bound at or above the given percentile, e.g. {@code 99.9}. */
+    public long percentile(double percentile) {
+        if (total == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) return Math.min(highestEquivalent(i), max);
+        }
+        return max;
+    }
+
+    private static int indexOf(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+        int shift = 64 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        int mantissa = (int) (value >>> shift);
+        return SUB_BUCKETS + (shift - 1) * HALF + (mantissa - HALF);
+    }
+
+    private static long highestEquivalent(int index) {
+        if (index < SUB_BUCKETS) return index;
+        int shift = (index - SUB_BUCKETS) / HALF + 1;
+        long mantissa = (index - SUB_BUCKETS) % HALF + HALF;
+        return ((mantissa + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,85 @@
+package main.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Settings for a {@link LoadGenerator} run.
+ *
+ * @param readWeight   relative share of {@code find} by id
+ * @param writeWeight  relative share of {@code modify}
+ * @param searchWeight relative share of {@code findAllBy} on last name and type
+ * @param recordTrace  when set, every executed operation is written to this file
+ * @param replayTrace  when set, operations are taken from this trace instead of the weighted mix
+ * @param pace         during replay, wait for each operation's original start offset
+ */
+public record LoadConfig(
+        Path root,
+        int datasetSize,
+        int readWeight,
+        int writeWeight,
+        int searchWeight,
+        int threads,
+        boolean virtualThreads,
+        Duration duration,
+        long seed,
+        boolean snapshot,
+        Path recordTrace,
+        Path replayTrace,
+        boolean pace
+) {
+    public LoadConfig {
+        Objects.requireNonNull(root, "root");
+        Objects.requireNonNull(duration, "duration");
+        if (datasetSize < 1) throw new IllegalArgumentException("datasetSize must be positive");
+        if (readWeight < 0 || writeWeight < 0 || searchWeight < 0 || readWeight + writeWeight + searchWeight == 0)
+            throw new IllegalArgumentException("weights must be non-negative and not all zero");
+        if (threads < 1) throw new IllegalArgumentException("threads must be positive");
+    }
+
+    /**
+     * Parses {@code --key=value} arguments, e.g.
+     * {@code --root=load-data --dataset=10000 --mix=80/15/5 --threads=16 --virtual=true --duration=PT1M}.
+     */
+    public static LoadConfig fromArgs(String... args) {
+        Path root = Path.of("load-data");
+        int dataset = 1_000;
+        int[] mix = {80, 15, 5};
+        int threads = Runtime.getRuntime().availableProcessors();
+        boolean virtual = false;
+        Duration duration = Duration.ofSeconds(30);
+        long seed = 42;
+        boolean snapshot = false;
+        Path record = null;
+        Path replay = null;
+        boolean pace = false;
+
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0) throw new IllegalArgumentException("Expected --key=value: " + arg);
+            String key = arg.substring(2, eq);
+            String value = arg.substring(eq + 1);
+            switch (key) {
+                case "root" -> root = Path.of(value);
+                case "dataset" -> dataset = Integer.parseInt(value);
+                case "mix" -> {
+                    String[] parts = value.split("/");
+                    if (parts.length != 3) throw new IllegalArgumentException("mix must be read/write/search: " + value);
+                    for (int i = 0; i < 3; i++) mix[i] = Integer.parseInt(parts[i]);
+                }
+                case "threads" -> threads = Integer.parseInt(value);
+                case "virtual" -> virtual = Boolean.parseBoolean(value);
+                case "duration" -> duration = Duration.parse(value);
+                case "seed" -> seed = Long.parseLong(value);
+                case "snapshot" -> snapshot = Boolean.parseBoolean(value);
+                case "record" -> record = Path.of(value);
+                case "replay" -> replay = Path.of(value);
+                case "pace" -> pace = Boolean.parseBoolean(value);
+                default -> throw new IllegalArgumentException("Unknown option: --" + key);
+            }
+        }
+        return new LoadConfig(root, dataset, mix[0], mix[1], mix[2], threads, virtual, duration,
+                seed, snapshot, record, replay, pace);
+    }
+}
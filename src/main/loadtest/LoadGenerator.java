@@ -0,0 +1,233 @@
+package main.loadtest;
+
+import main.dto.Person;
+import main.enums.Type;
+import main.repository.PersonRepository;
+import main.repository.SnapshotPersonRepository;
+import main.repository.XmlPersonRepository;
+import main.service.PersonService;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives a sustained mix of reads, writes and searches against {@link PersonService} and reports
+ * throughput, latency percentiles, errors and GC activity.
+ * <p>
+ * Run it with {@code java main.loadtest.LoadGenerator --dataset=10000 --mix=80/15/5 --threads=16
+ * --duration=PT1M}; see {@link LoadConfig#fromArgs} for all options. A run can record the
+ * operations it executed ({@code --record=trace.tsv}) and a later run can replay them
+ * ({@code --replay=trace.tsv}), optionally at the original pace ({@code --pace=true}).
+ */
+public final class LoadGenerator {
+    public enum Operation { READ, WRITE, SEARCH }
+
+    private record TraceEntry(long offsetNanos, Operation op, String arg) {}
+
+    private final LoadConfig config;
+    private final PersonService service;
+    private final List<String> ids;
+
+    public LoadGenerator(LoadConfig config) throws IOException {
+        this.config = Objects.requireNonNull(config, "config");
+        XmlPersonRepository xml = new XmlPersonRepository(config.root());
+        this.ids = prepareDataset(xml);
+        PersonRepository repo = config.snapshot() ? new SnapshotPersonRepository(xml) : xml;
+        this.service = new PersonService(repo);
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadConfig config = LoadConfig.fromArgs(args);
+        System.out.print(new LoadGenerator(config).run().format());
+    }
+
+    private List<String> prepareDataset(XmlPersonRepository repo) throws IOException {
+        List<String> existing = new ArrayList<>(repo.listIds());
+        Random random = new Random(config.seed());
+        for (int i = existing.size(); i < config.datasetSize(); i++) {
+            String id = "LT-%07d".formatted(i);
+            if (repo.findById(id).isPresent()) continue;
+            repo.create(randomPerson(id, random));
+            existing.add(id);
+        }
+        return List.copyOf(existing.subList(0, Math.min(existing.size(), config.datasetSize())));
+    }
+
+    public LoadReport run() throws IOException, InterruptedException {
+        List<TraceEntry> replay = config.replayTrace() == null ? null : readTrace(config.replayTrace());
+        BufferedWriter trace = config.recordTrace() == null ? null : Files.newBufferedWriter(config.recordTrace());
+
+        List<Worker> workers = new ArrayList<>();
+        AtomicInteger replayCursor = new AtomicInteger();
+        long start = System.nanoTime();
+        long deadline = start + config.duration().toNanos();
+        long gcCountBefore = gcCount();
+        long gcTimeBefore = gcMillis();
+
+        Thread.Builder builder = config.virtualThreads()
+                ? Thread.ofVirtual().name("load-", 0)
+                : Thread.ofPlatform().daemon(true).name("load-", 0);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < config.threads(); t++) {
+            Worker w = new Worker(new Random(config.seed() + t), start, deadline, replay, replayCursor, trace);
+            workers.add(w);
+            threads.add(builder.start(w));
+        }
+        try {
+            for (Thread t : threads) t.join();
+        } finally {
+            if (trace != null) trace.close();
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        Map<Operation, LatencyHistogram> latencies = new EnumMap<>(Operation.class);
+        Map<Operation, Long> errors = new EnumMap<>(Operation.class);
+        long allocated = 0;
+        for (Operation op : Operation.values()) {
+            latencies.put(op, new LatencyHistogram());
+            errors.put(op, 0L);
+        }
+        for (Worker w : workers) {
+            for (Operation op : Operation.values()) {
+                latencies.get(op).add(w.latencies.get(op));
+                errors.merge(op, w.errors[op.ordinal()], Long::sum);
+            }
+            allocated = (allocated < 0 || w.allocatedBytes < 0) ? -1 : allocated + w.allocatedBytes;
+        }
+        return new LoadReport(elapsed, config.threads(), config.virtualThreads(), latencies, errors,
+                gcCount() - gcCountBefore, gcMillis() - gcTimeBefore, allocated);
+    }
+
+    private final class Worker implements Runnable {
+        final Map<Operation, LatencyHistogram> latencies = new EnumMap<>(Operation.class);
+        final long[] errors = new long[Operation.values().length];
+        long allocatedBytes = -1;
+
+        private final Random random;
+        private final long start;
+        private final long deadline;
+        private final List<TraceEntry> replay;
+        private final AtomicInteger replayCursor;
+        private final BufferedWriter trace;
+
+        Worker(Random random, long start, long deadline,
+               List<TraceEntry> replay, AtomicInteger replayCursor, BufferedWriter trace) {
+            this.random = random;
+            this.start = start;
+            this.deadline = deadline;
+            this.replay = replay;
+            this.replayCursor = replayCursor;
+            this.trace = trace;
+            for (Operation op : Operation.values()) latencies.put(op, new LatencyHistogram());
+        }
+
+        @Override
+        public void run() {
+            long allocatedBefore = threadAllocatedBytes();
+            while (true) {
+                TraceEntry next = nextOperation();
+                if (next == null) break;
+                if (replay != null && config.pace()) {
+                    LockSupport.parkNanos(start + next.offsetNanos() - System.nanoTime());
+                }
+                long t0 = System.nanoTime();
+                try {
+                    execute(next.op(), next.arg());
+                    latencies.get(next.op()).record(System.nanoTime() - t0);
+                } catch (Exception e) {
+                    errors[next.op().ordinal()]++;
+                }
+                if (trace != null) writeTrace(trace, new TraceEntry(t0 - start, next.op(), next.arg()));
+            }
+            long allocatedAfter = threadAllocatedBytes();
+            if (allocatedBefore >= 0 && allocatedAfter >= 0) allocatedBytes = allocatedAfter - allocatedBefore;
+        }
+
+        private TraceEntry nextOperation() {
+            if (replay != null) {
+                int i = replayCursor.getAndIncrement();
+                return i < replay.size() ? replay.get(i) : null;
+            }
+            if (System.nanoTime() >= deadline) return null;
+            Operation op = pick();
+            String arg = op == Operation.SEARCH
+                    ? RandomPersons.LAST_NAMES[random.nextInt(RandomPersons.LAST_NAMES.length)] + "," + Type.values()[random.nextInt(2)]
+                    : ids.get(random.nextInt(ids.size()));
+            return new TraceEntry(0, op, arg);
+        }
+
+        private Operation pick() {
+            int r = random.nextInt(config.readWeight() + config.writeWeight() + config.searchWeight());
+            if (r < config.readWeight()) return Operation.READ;
+            if (r < config.readWeight() + config.writeWeight()) return Operation.WRITE;
+            return Operation.SEARCH;
+        }
+
+        private void execute(Operation op, String arg) throws IOException {
+            switch (op) {
+                case READ -> service.find(arg, null, null, null, null, null, null);
+                case WRITE -> {
+                    Person current = service.find(arg, null, null, null, null, null, null)
+                            .orElseThrow(() -> new IOException("Missing person " + arg));
+                    service.modify(current.withMobile(RandomPersons.mobile(random)));
+                }
+                case SEARCH -> {
+                    String[] parts = arg.split(",");
+                    service.findAllBy(null, Type.valueOf(parts[1]), null, parts[0], null, null, null);
+                }
+            }
+        }
+    }
+
+    private static void writeTrace(BufferedWriter trace, TraceEntry e) {
+        synchronized (trace) {
+            try {
+                trace.write(e.offsetNanos() + "\t" + e.op() + "\t" + e.arg());
+                trace.newLine();
+            } catch (IOException ignored) {
+                // a broken trace must not abort the load run
+            }
+        }
+    }
+
+    private static List<TraceEntry> readTrace(Path file) throws IOException {
+        List<TraceEntry> entries = new ArrayList<>();
+        for (String line : Files.readAllLines(file)) {
+            if (line.isBlank()) continue;
+            String[] parts = line.split("\t", 3);
+            entries.add(new TraceEntry(Long.parseLong(parts[0]), Operation.valueOf(parts[1]), parts[2]));
+        }
+        entries.sort(Comparator.comparingLong(TraceEntry::offsetNanos));
+        return entries;
+    }
+
+    private static Person randomPerson(String id, Random random) {
+        return RandomPersons.person(id, random.nextBoolean() ? Type.INTERNAL : Type.EXTERNAL, random);
+    }
+
+    private static long gcCount() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionCount).filter(c -> c > 0).sum();
+    }
+
+    private static long gcMillis() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionTime).filter(c -> c > 0).sum();
+    }
+
+    private static long threadAllocatedBytes() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                && !Thread.currentThread().isVirtual()) {
+            return bean.getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
+}
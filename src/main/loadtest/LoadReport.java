@@ -0,0 +1,57 @@
+package main.loadtest;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Outcome of a {@link LoadGenerator} run. Latencies are in nanoseconds.
+ *
+ * @param allocatedBytes bytes allocated by the load threads, or {@code -1} if the JVM cannot tell
+ */
+public record LoadReport(
+        Duration elapsed,
+        int threads,
+        boolean virtualThreads,
+        Map<LoadGenerator.Operation, LatencyHistogram> latencies,
+        Map<LoadGenerator.Operation, Long> errors,
+        long gcCollections,
+        long gcMillis,
+        long allocatedBytes
+) {
+    public LatencyHistogram total() {
+        LatencyHistogram all = new LatencyHistogram();
+        latencies.values().forEach(all::add);
+        return all;
+    }
+
+    public long totalErrors() {
+        return errors.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    public double throughput(LatencyHistogram h) {
+        double seconds = elapsed.toNanos() / 1e9;
+        return seconds == 0 ? 0 : h.count() / seconds;
+    }
+
+    public String format() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Load test: %.1f s, %d %s threads%n".formatted(
+                elapsed.toMillis() / 1000.0, threads, virtualThreads ? "virtual" : "platform"));
+        sb.append("%-8s %10s %10s %10s %10s %10s %10s %8s%n".formatted(
+                "op", "count", "ops/s", "p50(us)", "p99(us)", "p99.9(us)", "max(us)", "errors"));
+        for (var e : latencies.entrySet()) {
+            row(sb, e.getKey().name(), e.getValue(), errors.getOrDefault(e.getKey(), 0L));
+        }
+        row(sb, "TOTAL", total(), totalErrors());
+        sb.append("GC: %d collections, %d ms".formatted(gcCollections, gcMillis));
+        if (allocatedBytes >= 0) sb.append(", %.1f MiB allocated".formatted(allocatedBytes / (1024.0 * 1024.0)));
+        return sb.append(System.lineSeparator()).toString();
+    }
+
+    private void row(StringBuilder sb, String name, LatencyHistogram h, long errorCount) {
+        sb.append("%-8s %10d %10.0f %10.1f %10.1f %10.1f %10.1f %8d%n".formatted(
+                name, h.count(), throughput(h),
+                h.percentile(50) / 1e3, h.percentile(99) / 1e3, h.percentile(99.9) / 1e3, h.max() / 1e3,
+                errorCount));
+    }
+}
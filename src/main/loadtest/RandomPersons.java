@@ -0,0 +1,41 @@
+package main.loadtest;
+
+import main.dto.Person;
+import main.enums.Type;
+
+import java.util.Random;
+
+/** Valid, varied person data for load runs and test fixtures. */
+public final class RandomPersons {
+    static final String[] FIRST_NAMES = {"Anna", "Jan", "Piotr", "Maria", "Tomasz", "Ewa", "Łukasz", "Zofia"};
+    static final String[] LAST_NAMES = {"Nowak", "Kowalski", "Wiśniewski", "Lewandowski", "Zieliński", "Mazur"};
+
+    private RandomPersons() {}
+
+    /** A person whose details are drawn from {@code random}; the e-mail is derived from {@code id}. */
+    public static Person person(String id, Type type, Random random) {
+        return new Person(id, type,
+                FIRST_NAMES[random.nextInt(FIRST_NAMES.length)],
+                LAST_NAMES[random.nextInt(LAST_NAMES.length)],
+                mobile(random),
+                id.toLowerCase() + "@example.com",
+                pesel(random));
+    }
+
+    public static String mobile(Random random) {
+        return "+48" + (500_000_000 + random.nextInt(400_000_000));
+    }
+
+    /** Eleven digits with a valid check digit. */
+    public static String pesel(Random random) {
+        int[] w = {1, 3, 7, 9, 1, 3, 7, 9, 1, 3};
+        StringBuilder sb = new StringBuilder();
+        int sum = 0;
+        for (int i = 0; i < 10; i++) {
+            int d = random.nextInt(10);
+            sum += d * w[i];
+            sb.append(d);
+        }
+        return sb.append((10 - sum % 10) % 10).toString();
+    }
+}
@@ -0,0 +1,213 @@
+package main.replication;
+
+import main.dto.Person;
+import main.dto.PersonChange;
+import main.repository.ChangeLog;
+import main.repository.PersonRepository;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.file.*;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies a {@link ReplicationLeader}'s change stream to a local {@link PersonRepository}.
+ * <p>
+ * The leader's log id and the last applied sequence number are stored in {@code offsetFile}
+ * after every change, so after a dropped connection or a restart the follower asks the leader to
+ * resume right after it. A new follower, or one whose stored log id does not match the leader's
+ * (the leader's log was replaced, or the follower now points at a different leader), first
+ * resyncs from a full snapshot: every record is upserted and local records missing from the
+ * snapshot are removed. Until the snapshot completes the old offset stays on disk, so an
+ * interrupted resync simply starts over.
+ * <p>
+ * Applying is idempotent (creates and updates are upserts, removes of missing records are
+ * ignored), so replaying a change that was applied just before a crash is harmless.
+ * Reads should be served from the local repository; writes belong on the leader.
+ */
+public class ReplicationFollower implements AutoCloseable {
+    private static final long MAX_BACKOFF_MILLIS = 2_000;
+
+    private final PersonRepository repo;
+    private final String host;
+    private final int port;
+    private final Path offsetFile;
+    private final Object progress = new Object();
+    private final Thread worker;
+
+    private volatile String logId;
+    private volatile long applied;
+    private volatile long leaderSequence;
+    private volatile boolean connected;
+    private volatile boolean closed;
+    private volatile Socket socket;
+
+    public ReplicationFollower(PersonRepository repo, String host, int port, Path offsetFile) throws IOException {
+        this.repo = Objects.requireNonNull(repo, "repo");
+        this.host = Objects.requireNonNull(host, "host");
+        this.port = port;
+        this.offsetFile = Objects.requireNonNull(offsetFile, "offsetFile");
+        readOffset();
+        this.worker = new Thread(this::run, "replication-follower-" + host + ":" + port);
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    public long appliedSequence() { return applied; }
+
+    /** How many changes the follower is behind, as of the last frame from the leader. */
+    public long lag() { return Math.max(0, leaderSequence - applied); }
+
+    public boolean isConnected() { return connected; }
+
+    /** Waits until every change up to {@code sequence} has been applied locally. */
+    public boolean awaitSequence(long sequence, long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (progress) {
+            while (applied < sequence) {
+                long left = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (left <= 0) return false;
+                progress.wait(left);
+            }
+            return true;
+        }
+    }
+
+    private void run() {
+        long backoff = 50;
+        while (!closed) {
+            try (Socket s = new Socket()) {
+                socket = s;
+                s.connect(new InetSocketAddress(host, port), (int) MAX_BACKOFF_MILLIS);
+                s.setSoTimeout((int) (ReplicationLeader.HEARTBEAT_MILLIS * 4));
+                s.setTcpNoDelay(true);
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(s.getOutputStream()));
+                DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream()));
+                String leaderLogId = in.readUTF();
+                leaderSequence = in.readLong();
+                boolean resync = !leaderLogId.equals(logId) || applied > leaderSequence;
+                out.writeBoolean(resync);
+                out.writeLong(applied + 1);
+                out.flush();
+                connected = true;
+                backoff = 50;
+                if (resync) receiveSnapshot(in, leaderLogId);
+                receive(in);
+            } catch (IOException e) {
+                // leader unavailable or stream broken; retry from the stored offset
+            } finally {
+                connected = false;
+                socket = null;
+            }
+            if (closed) return;
+            try {
+                Thread.sleep(backoff);
+            } catch (InterruptedException e) {
+                return;
+            }
+            backoff = Math.min(MAX_BACKOFF_MILLIS, backoff * 2);
+        }
+    }
+
+    private void receiveSnapshot(DataInputStream in, String leaderLogId) throws IOException {
+        Set<String> kept = new HashSet<>();
+        long covered = -1;
+        while (covered < 0) {
+            byte frame = in.readByte();
+            switch (frame) {
+                case ReplicationLeader.FRAME_HEARTBEAT -> leaderSequence = in.readLong();
+                case ReplicationLeader.FRAME_SNAPSHOT_RECORD -> {
+                    Person p = ChangeLog.readPerson(in);
+                    if (p == null) throw new IOException("Empty record in snapshot");
+                    upsert(p);
+                    kept.add(p.personId());
+                }
+                case ReplicationLeader.FRAME_SNAPSHOT_END -> covered = in.readLong();
+                default -> throw new IOException("Unexpected replication frame " + frame + " in snapshot");
+            }
+        }
+        for (String id : repo.listIds()) {
+            if (!kept.contains(id)) repo.remove(id);
+        }
+        writeOffset(leaderLogId, covered);
+        logId = leaderLogId;
+        synchronized (progress) {
+            applied = covered;
+            progress.notifyAll();
+        }
+    }
+
+    private void receive(DataInputStream in) throws IOException {
+        while (!closed) {
+            byte frame = in.readByte();
+            switch (frame) {
+                case ReplicationLeader.FRAME_HEARTBEAT -> leaderSequence = in.readLong();
+                case ReplicationLeader.FRAME_CHANGE -> {
+                    PersonChange c = ChangeLog.readChange(in);
+                    if (c == null) throw new EOFException("Stream ended inside a change");
+                    leaderSequence = Math.max(leaderSequence, c.sequence());
+                    if (c.sequence() <= applied) continue;
+                    if (c.sequence() != applied + 1)
+                        throw new IOException("Expected sequence %d, got %d".formatted(applied + 1, c.sequence()));
+                    apply(c);
+                    writeOffset(logId, c.sequence());
+                    synchronized (progress) {
+                        applied = c.sequence();
+                        progress.notifyAll();
+                    }
+                }
+                default -> throw new IOException("Unknown replication frame " + frame);
+            }
+        }
+    }
+
+    private void apply(PersonChange c) throws IOException {
+        switch (c.kind()) {
+            case CREATE, UPDATE -> upsert(c.after());
+            case REMOVE -> repo.remove(c.personId());
+            case ARCHIVE -> repo.archive(c.personId());
+        }
+    }
+
+    private void upsert(Person p) throws IOException {
+        if (repo.findById(p.personId()).isPresent()) repo.update(p);
+        else repo.create(p);
+    }
+
+    /** Reads {@code "<logId> <sequence>"}; a missing or old-format file forces a resync. */
+    private void readOffset() throws IOException {
+        if (!Files.exists(offsetFile)) return;
+        String[] parts = Files.readString(offsetFile).trim().split("\\s+");
+        if (parts.length != 2) return;
+        logId = parts[0];
+        applied = Long.parseLong(parts[1]);
+    }
+
+    private void writeOffset(String logId, long sequence) throws IOException {
+        if (offsetFile.getParent() != null) Files.createDirectories(offsetFile.getParent());
+        Path tmp = offsetFile.resolveSibling(offsetFile.getFileName() + ".tmp");
+        Files.writeString(tmp, logId + " " + sequence);
+        try {
+            Files.move(tmp, offsetFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(tmp, offsetFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        Socket s = socket;
+        if (s != null) s.close();
+        worker.interrupt();
+        try {
+            worker.join(MAX_BACKOFF_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
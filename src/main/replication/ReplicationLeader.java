@@ -0,0 +1,189 @@
+package main.replication;
+
+import main.dto.Person;
+import main.dto.PersonChange;
+import main.repository.ChangeLog;
+import main.repository.PersonRepository;
+import main.service.ChangeFeed;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ships the leader's {@link ChangeFeed} to followers over TCP.
+ * <p>
+ * Protocol: on connect the leader sends its log id ({@code UTF}) and last sequence number
+ * ({@code long}). The follower answers with a snapshot flag ({@code boolean}) and the next
+ * sequence number it needs ({@code long}). A follower that is new, or whose stored log id no
+ * longer matches, asks for a snapshot: the leader sends every live record as
+ * {@link #FRAME_SNAPSHOT_RECORD}, then {@link #FRAME_SNAPSHOT_END} with the sequence number the
+ * snapshot is consistent with, and continues with changes after it. Heartbeats may be
+ * interleaved with the snapshot records.
+ * <p>
+ * The leader then streams frames: {@link #FRAME_CHANGE} followed by one change in
+ * {@link ChangeLog#writeChange} encoding, or {@link #FRAME_HEARTBEAT} followed by the leader's
+ * last sequence number when there was nothing to send for a while. Because the feed replays
+ * from its on-disk log, a follower can resume from any offset after a reconnect.
+ * <p>
+ * The stream carries personal data unauthenticated, so the leader listens on the loopback
+ * interface unless a wider bind address is passed explicitly.
+ */
+public class ReplicationLeader implements AutoCloseable {
+    static final byte FRAME_CHANGE = 1;
+    static final byte FRAME_HEARTBEAT = 2;
+    static final byte FRAME_SNAPSHOT_RECORD = 3;
+    static final byte FRAME_SNAPSHOT_END = 4;
+    static final long HEARTBEAT_MILLIS = 500;
+
+    private static final int QUEUE_CAPACITY = 1024;
+
+    private final PersonRepository source;
+    private final ChangeFeed feed;
+    private final ServerSocket server;
+    private final Set<Socket> followers = ConcurrentHashMap.newKeySet();
+    private volatile boolean closed;
+
+    /** Listens on the loopback interface at {@code port}; pass {@code 0} for an ephemeral port. */
+    public ReplicationLeader(PersonRepository source, ChangeFeed feed, int port) throws IOException {
+        this(source, feed, port, InetAddress.getLoopbackAddress());
+    }
+
+    /**
+     * @param source      repository the snapshots for new followers are read from
+     * @param bindAddress interface to listen on; {@code null} means all interfaces
+     */
+    public ReplicationLeader(PersonRepository source, ChangeFeed feed, int port, InetAddress bindAddress) throws IOException {
+        this.source = Objects.requireNonNull(source, "source");
+        this.feed = Objects.requireNonNull(feed, "feed");
+        this.server = new ServerSocket(port, 50, bindAddress);
+        Thread acceptor = new Thread(this::acceptLoop, "replication-leader-" + server.getLocalPort());
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    public int port() { return server.getLocalPort(); }
+
+    public int followerCount() { return followers.size(); }
+
+    private void acceptLoop() {
+        while (!closed) {
+            try {
+                Socket socket = server.accept();
+                followers.add(socket);
+                Thread t = new Thread(() -> serve(socket), "replication-ship-" + socket.getPort());
+                t.setDaemon(true);
+                t.start();
+            } catch (IOException e) {
+                if (closed) return;
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+            socket.setTcpNoDelay(true);
+            out.writeUTF(feed.logId());
+            out.writeLong(feed.lastSequence());
+            out.flush();
+            boolean snapshot = in.readBoolean();
+            long from = in.readLong();
+            if (snapshot) from = sendSnapshot(out) + 1;
+            try (ChangeFeed.Subscription sub = feed.subscribe(from, QUEUE_CAPACITY)) {
+                stream(sub, out);
+            }
+        } catch (SocketException | EOFException e) {
+            // follower went away; it reconnects with its own offset
+        } catch (IOException e) {
+            if (!closed) System.err.println("Replication to " + socket.getRemoteSocketAddress() + " failed: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            followers.remove(socket);
+        }
+    }
+
+    /**
+     * Sends every live record and returns the sequence number the snapshot covers. The sequence
+     * is taken before the records are read, so anything changed meanwhile is also in the stream
+     * that follows; applying it twice is harmless on the follower. Records are read one by one,
+     * so one removed while the snapshot runs is just skipped.
+     * <p>
+     * Listing and reading the records can take longer than the follower's read timeout, so a
+     * side thread keeps sending heartbeats until the snapshot is complete.
+     */
+    private long sendSnapshot(DataOutputStream out) throws IOException {
+        long covered = feed.lastSequence();
+        boolean[] done = new boolean[1];
+        Thread keepAlive = new Thread(() -> {
+            try {
+                while (true) {
+                    Thread.sleep(HEARTBEAT_MILLIS);
+                    synchronized (out) {
+                        if (done[0]) return;
+                        out.writeByte(FRAME_HEARTBEAT);
+                        out.writeLong(feed.lastSequence());
+                        out.flush();
+                    }
+                }
+            } catch (IOException | InterruptedException e) {
+                // the snapshot itself fails on the same stream, or has finished
+            }
+        }, "replication-snapshot-heartbeat");
+        keepAlive.setDaemon(true);
+        keepAlive.start();
+        try {
+            for (String id : source.listIds()) {
+                Optional<Person> p = source.findById(id);
+                if (p.isEmpty()) continue;
+                synchronized (out) {
+                    out.writeByte(FRAME_SNAPSHOT_RECORD);
+                    ChangeLog.writePerson(out, p.get());
+                }
+            }
+            synchronized (out) {
+                out.writeByte(FRAME_SNAPSHOT_END);
+                out.writeLong(covered);
+                out.flush();
+            }
+        } finally {
+            synchronized (out) {
+                done[0] = true;
+            }
+            keepAlive.interrupt();
+        }
+        return covered;
+    }
+
+    private void stream(ChangeFeed.Subscription sub, DataOutputStream out) throws IOException, InterruptedException {
+        while (!closed) {
+            PersonChange c = sub.poll(HEARTBEAT_MILLIS, TimeUnit.MILLISECONDS);
+            if (c == null) {
+                out.writeByte(FRAME_HEARTBEAT);
+                out.writeLong(feed.lastSequence());
+            } else {
+                out.writeByte(FRAME_CHANGE);
+                ChangeLog.writeChange(out, c);
+            }
+            out.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        server.close();
+        for (Socket s : followers) {
+            try { s.close(); } catch (IOException ignored) {}
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package main.repository;
+
+
+import main.dto.Person;
+import main.dto.PersonChange;
+import main.enums.ChangeKind;
+import main.enums.Type;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, on-disk log of {@link PersonChange} records in sequence order.
+ * <p>
+ * Each record is framed as its length ({@code int}), the CRC32 of its body ({@code int}) and
+ * the body in {@link #writeChange} encoding. Anything at the tail that does not frame or decode
+ * (a record cut short by a crash, zero-filled blocks, garbage) is treated as end of log and cut
+ * off when the log is opened.
+ * <p>
+ * A sparse in-memory index maps every {@link #INDEX_INTERVAL}-th sequence number to its byte
+ * offset, so {@link #read} seeks close to the requested sequence instead of scanning the file.
+ * <p>
+ * Each log has a random {@link #logId()} kept next to it in {@code <file>.id}. A new id is drawn
+ * whenever the log starts out empty, so a replaced or reset log never passes for the old one.
+ */
+public class ChangeLog implements Closeable {
+    static final int INDEX_INTERVAL = 256;
+    private static final int FRAME_HEADER = 8;
+    private static final int MAX_RECORD = 1 << 20;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final String logId;
+    private final NavigableMap<Long, Long> index = new TreeMap<>();
+    private long lastSequence;
+    private long endOffset;
+
+    public ChangeLog(Path file) throws IOException {
+        this.file = Objects.requireNonNull(file, "file");
+        if (file.getParent() != null) Files.createDirectories(file.getParent());
+        scan();
+        this.logId = readOrCreateLogId();
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    }
+
+    public String logId() { return logId; }
+
+    public synchronized long lastSequence() { return lastSequence; }
+
+    /** Appends one change; on failure the file is cut back so no partial record remains. */
+    public synchronized void append(PersonChange change) throws IOException {
+        if (change.sequence() <= lastSequence)
+            throw new IOException("Non-increasing sequence %d after %d".formatted(change.sequence(), lastSequence));
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(body)) {
+            writeChange(out, change);
+        }
+        if (body.size() > MAX_RECORD) throw new IOException("Change record too large: " + body.size() + " bytes");
+        CRC32 crc = new CRC32();
+        crc.update(body.toByteArray());
+        ByteBuffer bytes = ByteBuffer.allocate(FRAME_HEADER + body.size())
+                .putInt(body.size()).putInt((int) crc.getValue()).put(body.toByteArray()).flip();
+        int size = bytes.remaining();
+        try {
+            long pos = endOffset;
+            while (bytes.hasRemaining()) pos += channel.write(bytes, pos);
+        } catch (IOException e) {
+            try { channel.truncate(endOffset); } catch (IOException truncateFailure) { e.addSuppressed(truncateFailure); }
+            throw e;
+        }
+        indexRecord(change.sequence(), endOffset);
+        endOffset += size;
+        lastSequence = change.sequence();
+    }
+
+    /** Reads at most {@code max} changes with {@code sequence >= fromSequence}. */
+    public List<PersonChange> read(long fromSequence, int max) throws IOException {
+        long start;
+        synchronized (this) {
+            var e = index.floorEntry(fromSequence);
+            start = e == null ? 0 : e.getValue();
+        }
+        List<PersonChange> changes = new ArrayList<>();
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(ch.position(start))))) {
+            while (changes.size() < max) {
+                Frame f = readFrame(in);
+                if (f == null) break;
+                PersonChange c = f.change();
+                if (c.sequence() >= fromSequence) changes.add(c);
+            }
+        }
+        return changes;
+    }
+
+    private void indexRecord(long sequence, long offset) {
+        if (index.isEmpty() || sequence - index.lastKey() >= INDEX_INTERVAL) index.put(sequence, offset);
+    }
+
+    /**
+     * Finds the last complete record, builds the sparse index and cuts off a torn tail so later
+     * appends stay readable.
+     */
+    private void scan() throws IOException {
+        if (!Files.exists(file)) return;
+        long goodBytes = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            Frame f;
+            while ((f = readFrame(in)) != null && f.change().sequence() > lastSequence) {
+                indexRecord(f.change().sequence(), goodBytes);
+                lastSequence = f.change().sequence();
+                goodBytes += f.size();
+            }
+        }
+        if (goodBytes < Files.size(file)) {
+            try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                ch.truncate(goodBytes);
+            }
+        }
+        endOffset = goodBytes;
+    }
+
+    private String readOrCreateLogId() throws IOException {
+        Path idFile = file.resolveSibling(file.getFileName() + ".id");
+        if (endOffset > 0 && Files.exists(idFile)) {
+            String id = Files.readString(idFile).trim();
+            if (!id.isEmpty()) return id;
+        }
+        String id = UUID.randomUUID().toString();
+        Files.writeString(idFile, id);
+        return id;
+    }
+
+    /** One decoded record and its size in the file, header included. */
+    private record Frame(PersonChange change, int size) {}
+
+    /**
+     * Reads one framed record; {@code null} at end of log, including a record that is cut short,
+     * fails its checksum or does not decode.
+     */
+    private static Frame readFrame(DataInputStream in) throws IOException {
+        try {
+            int length = in.readInt();
+            int expected = in.readInt();
+            if (length <= 0 || length > MAX_RECORD) return null;
+            byte[] body = in.readNBytes(length);
+            if (body.length < length) return null;
+            CRC32 crc = new CRC32();
+            crc.update(body);
+            if ((int) crc.getValue() != expected) return null;
+            PersonChange c = readChange(new DataInputStream(new ByteArrayInputStream(body)));
+            return c == null ? null : new Frame(c, FRAME_HEADER + length);
+        } catch (EOFException | IllegalArgumentException | UTFDataFormatException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    /** Binary encoding of one change; shared by the log file and the replication stream. */
+    public static void writeChange(DataOutputStream out, PersonChange c) throws IOException {
+        out.writeLong(c.sequence());
+        out.writeUTF(c.kind().name());
+        out.writeUTF(c.personId());
+        writePerson(out, c.before());
+        writePerson(out, c.after());
+        out.writeLong(c.at().toEpochMilli());
+    }
+
+    /** Reads one change written by {@link #writeChange}; {@code null} at end of input. */
+    public static PersonChange readChange(DataInputStream in) throws IOException {
+        try {
+            long seq = in.readLong();
+            ChangeKind kind = ChangeKind.valueOf(in.readUTF());
+            String id = in.readUTF();
+            Person before = readPerson(in);
+            Person after = readPerson(in);
+            Instant at = Instant.ofEpochMilli(in.readLong());
+            return new PersonChange(seq, kind, id, before, after, at);
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    public static void writePerson(DataOutputStream out, Person p) throws IOException {
+        out.writeBoolean(p != null);
+        if (p == null) return;
+        writeNullable(out, p.personId());
+        writeNullable(out, p.type() == null ? null : p.type().name());
+        writeNullable(out, p.firstName());
+        writeNullable(out, p.lastName());
+        writeNullable(out, p.mobile());
+        writeNullable(out, p.email());
+        writeNullable(out, p.pesel());
+    }
+
+    public static Person readPerson(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) return null;
+        String id = readNullable(in);
+        String type = readNullable(in);
+        return new Person(id, type == null ? null : Type.valueOf(type),
+                readNullable(in), readNullable(in), readNullable(in), readNullable(in), readNullable(in));
+    }
+
+    private static void writeNullable(DataOutputStream out, String v) throws IOException {
+        out.writeBoolean(v != null);
+        if (v != null) out.writeUTF(v);
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
@@ -0,0 +1,441 @@
+package main.repository;
+
+
+import main.dto.ArchivedPerson;
+import main.dto.PartitionStats;
+import main.dto.Person;
+import main.enums.Type;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * Spreads persons over several {@link XmlPersonRepository} roots (e.g. one per disk) by a
+ * consistent hash of {@code personId}.
+ * <p>
+ * Single-record operations go to exactly one root; scans fan out to all roots in parallel and
+ * are merged. {@link #addRoot} moves only the records whose owner changed (about
+ * {@code 1/(n+1)} of them). While records are moving, lookups that miss their owner also check
+ * the other roots, so reads and writes keep working during a rebalance.
+ * <p>
+ * The roots, the hash ring and the rebalancing flag are published together as one immutable
+ * {@link Layout}. Every operation works on the layout it started with and holds the layout
+ * read lock while it runs; a new layout is only installed under the write lock, so records never
+ * start moving while an operation is still working on the old layout. While a rebalance runs,
+ * scans also hold the move read lock and every change that touches more than one root holds the
+ * move write lock, so a scan never sees a record in both roots or in neither.
+ * <p>
+ * Ownership is decided by a random id stored in each root ({@value #ROOT_ID_FILE}), not by its
+ * path or its position in the list, so a root can be remounted, moved or reached through a
+ * symlink without records changing owner. If roots are added or removed while the application
+ * is down, call {@link #rebalance()} once at startup.
+ */
+public class PartitionedPersonRepository implements PersonRepository, AutoCloseable {
+    private static final int VIRTUAL_NODES = 128;
+    static final String ROOT_ID_FILE = ".partition-id";
+
+    private final boolean archiveOnRemove;
+    private final Object[] stripes = new Object[256];
+    private final ReentrantReadWriteLock layoutLock = new ReentrantReadWriteLock();
+    private final ReentrantReadWriteLock moveLock = new ReentrantReadWriteLock();
+    private final ExecutorService pool = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "partition-io");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private volatile Layout layout;
+
+    private record Partition(Path root, String id, XmlPersonRepository repo) {
+        static Partition open(Path root) throws IOException {
+            var repo = new XmlPersonRepository(root);
+            Path idFile = root.resolve(ROOT_ID_FILE);
+            if (!Files.exists(idFile)) Files.writeString(idFile, UUID.randomUUID().toString());
+            return new Partition(root, Files.readString(idFile).trim(), repo);
+        }
+    }
+
+    private record Layout(List<Partition> partitions, NavigableMap<Long, Partition> ring, boolean rebalancing) {
+        Layout(List<Partition> partitions, boolean rebalancing) {
+            this(List.copyOf(partitions), buildRing(partitions), rebalancing);
+        }
+
+        Layout withRebalancing(boolean rebalancing) {
+            return new Layout(partitions, ring, rebalancing);
+        }
+
+        Partition owner(String personId) {
+            var e = ring.ceilingEntry(hash(personId));
+            return (e != null ? e : ring.firstEntry()).getValue();
+        }
+    }
+
+    @FunctionalInterface
+    private interface LayoutTask<R> {
+        R run(Layout layout) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface PartitionTask<R> {
+        R run(Partition partition) throws IOException;
+    }
+
+    public PartitionedPersonRepository(List<Path> roots) throws IOException {
+        this(roots, false);
+    }
+
+    /**
+     * @param archiveOnRemove when true, {@link #remove} archives the record in its root instead
+     *                        of deleting it (see {@link XmlPersonRepository#archive})
+     */
+    public PartitionedPersonRepository(List<Path> roots, boolean archiveOnRemove) throws IOException {
+        if (roots.isEmpty()) throw new IllegalArgumentException("at least one root is required");
+        this.archiveOnRemove = archiveOnRemove;
+        for (int i = 0; i < stripes.length; i++) stripes[i] = new Object();
+        List<Partition> parts = new ArrayList<>();
+        for (Path root : roots) parts.add(Partition.open(root));
+        requireDistinctIds(parts);
+        this.layout = new Layout(parts, false);
+    }
+
+    public List<Path> roots() {
+        return layout.partitions().stream().map(Partition::root).toList();
+    }
+
+    /** Adds a root and moves the records it now owns; returns how many records moved. */
+    public synchronized int addRoot(Path root) throws IOException {
+        List<Partition> parts = new ArrayList<>(layout.partitions());
+        parts.add(Partition.open(root));
+        requireDistinctIds(parts);
+        return migrate(new Layout(parts, true));
+    }
+
+    /** Moves every record that is not stored in the root owning it; returns how many moved. */
+    public synchronized int rebalance() throws IOException {
+        return migrate(layout.withRebalancing(true));
+    }
+
+    private int migrate(Layout moving) throws IOException {
+        install(moving);
+        try {
+            return forEachPartition(moving, p -> migrateFrom(moving, p)).stream().mapToInt(Integer::intValue).sum();
+        } finally {
+            install(moving.withRebalancing(false));
+        }
+    }
+
+    /** Waits for operations still running on the current layout, then switches to {@code next}. */
+    private void install(Layout next) {
+        layoutLock.writeLock().lock();
+        try {
+            layout = next;
+        } finally {
+            layoutLock.writeLock().unlock();
+        }
+    }
+
+    /** Runs {@code task} on the current layout, which cannot be replaced until it returns. */
+    private <R> R withLayout(LayoutTask<R> task) throws IOException {
+        layoutLock.readLock().lock();
+        try {
+            return task.run(layout);
+        } finally {
+            layoutLock.readLock().unlock();
+        }
+    }
+
+    private int migrateFrom(Layout moving, Partition source) throws IOException {
+        int moved = 0;
+        for (String id : source.repo().listIds()) {
+            Partition target = moving.owner(id);
+            if (target == source) continue;
+            synchronized (stripe(id)) {
+                moveLock.writeLock().lock();
+                try {
+                    var p = source.repo().findById(id);
+                    if (p.isEmpty()) continue;
+                    // a write that raced with us already put the current version on the target
+                    if (target.repo().findById(id).isEmpty()) target.repo().create(p.get());
+                    source.repo().remove(id);
+                    moved++;
+                } finally {
+                    moveLock.writeLock().unlock();
+                }
+            }
+        }
+        return moved;
+    }
+
+    @Override
+    public Optional<Person> findById(String personId) throws IOException {
+        return withLayout(l -> {
+            Partition owner = l.owner(personId);
+            Optional<Person> p = owner.repo().findById(personId);
+            if (p.isPresent() || !l.rebalancing()) return p;
+            moveLock.readLock().lock();
+            try {
+                // look again: the record may have reached its owner after the first lookup
+                p = owner.repo().findById(personId);
+                return p.isPresent() ? p : findOutsideOwner(l, owner, personId);
+            } finally {
+                moveLock.readLock().unlock();
+            }
+        });
+    }
+
+    private static Optional<Person> findOutsideOwner(Layout l, Partition owner, String personId) throws IOException {
+        for (Partition part : l.partitions()) {
+            if (part == owner) continue;
+            Optional<Person> p = part.repo().findById(personId);
+            if (p.isPresent()) return p;
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public List<Person> findAll() throws IOException {
+        return scan(p -> p.repo().findAll());
+    }
+
+    @Override
+    public List<Person> findAll(Type type) throws IOException {
+        return scan(p -> p.repo().findAll(type));
+    }
+
+    @Override
+    public List<Person> findBy(Predicate<Person> filter) throws IOException {
+        return scan(p -> p.repo().findBy(filter));
+    }
+
+    @Override
+    public List<Person> findBy(Type type, Predicate<Person> filter) throws IOException {
+        return scan(p -> p.repo().findBy(type, filter));
+    }
+
+    @Override
+    public List<String> listIds() throws IOException {
+        return withLayout(l -> {
+            if (!l.rebalancing()) return flatten(forEachPartition(l, p -> p.repo().listIds()));
+            moveLock.readLock().lock();
+            try {
+                return List.copyOf(new LinkedHashSet<>(flatten(forEachPartition(l, p -> p.repo().listIds()))));
+            } finally {
+                moveLock.readLock().unlock();
+            }
+        });
+    }
+
+    @Override
+    public long count(Type type) throws IOException {
+        return stats(type).records();
+    }
+
+    /** Summed over all roots; {@code type == null} covers every type partition. */
+    @Override
+    public PartitionStats stats(Type type) throws IOException {
+        return withLayout(l -> {
+            long records = 0, bytes = 0;
+            for (Partition p : l.partitions()) {
+                PartitionStats s = p.repo().stats(type);
+                records += s.records();
+                bytes += s.bytes();
+            }
+            return new PartitionStats(type, records, bytes);
+        });
+    }
+
+    /** During a rebalance the record may still sit outside its owner, so every root is checked. */
+    @Override
+    public void create(Person person) throws IOException {
+        String id = person.personId();
+        withLayout(l -> {
+            synchronized (stripe(id)) {
+                Partition owner = l.owner(id);
+                if (l.rebalancing() && findOutsideOwner(l, owner, id).isPresent())
+                    throw new IOException("Person " + id + " already exists in another root");
+                owner.repo().create(person);
+                return null;
+            }
+        });
+    }
+
+    @Override
+    public void update(Person person) throws IOException {
+        String id = person.personId();
+        withLayout(l -> {
+            synchronized (stripe(id)) {
+                Partition target = l.owner(id);
+                if (!l.rebalancing()) {
+                    target.repo().update(person);
+                    return null;
+                }
+                moveLock.writeLock().lock();
+                try {
+                    target.repo().update(person);
+                    for (Partition part : l.partitions()) {
+                        if (part != target) part.repo().remove(id);
+                    }
+                    return null;
+                } finally {
+                    moveLock.writeLock().unlock();
+                }
+            }
+        });
+    }
+
+    @Override
+    public boolean remove(String personId) throws IOException {
+        return removeEverywhere(personId, archiveOnRemove);
+    }
+
+    /** The roots never archive on their own, so a plain remove in each root never archives. */
+    @Override
+    public boolean purge(String personId) throws IOException {
+        return removeEverywhere(personId, false);
+    }
+
+    @Override
+    public boolean archive(String personId) throws IOException {
+        return removeEverywhere(personId, true);
+    }
+
+    private boolean removeEverywhere(String personId, boolean archive) throws IOException {
+        return withLayout(l -> {
+            synchronized (stripe(personId)) {
+                Partition owner = l.owner(personId);
+                if (!l.rebalancing()) return archive ? owner.repo().archive(personId) : owner.repo().remove(personId);
+                moveLock.writeLock().lock();
+                try {
+                    boolean removed = false;
+                    for (Partition part : l.partitions()) {
+                        removed |= archive ? part.repo().archive(personId) : part.repo().remove(personId);
+                    }
+                    return removed;
+                } finally {
+                    moveLock.writeLock().unlock();
+                }
+            }
+        });
+    }
+
+    @Override
+    public Optional<ArchivedPerson> findArchivedById(String personId) throws IOException {
+        return withLayout(l -> forEachPartition(l, p -> p.repo().findArchivedById(personId))).stream()
+                .flatMap(Optional::stream)
+                .max(Comparator.comparing(ArchivedPerson::archivedAt));
+    }
+
+    /** Matching archived entries of every root, oldest first. */
+    @Override
+    public List<ArchivedPerson> findArchivedBy(Predicate<Person> filter) throws IOException {
+        List<ArchivedPerson> all = withLayout(l -> flatten(forEachPartition(l, p -> p.repo().findArchivedBy(filter))));
+        all.sort(Comparator.comparing(ArchivedPerson::archivedAt));
+        return all;
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    private Object stripe(String personId) {
+        return stripes[Math.floorMod(personId.hashCode(), stripes.length)];
+    }
+
+    /**
+     * Runs a query on every root and concatenates the results. During a rebalance a record can
+     * briefly exist in two roots; the copy outside its owner is dropped if the owner has one.
+     */
+    private List<Person> scan(PartitionTask<List<Person>> query) throws IOException {
+        return withLayout(l -> {
+            if (!l.rebalancing()) return flatten(forEachPartition(l, query));
+            moveLock.readLock().lock();
+            try {
+                return flatten(forEachPartition(l, p -> {
+                    List<Person> kept = new ArrayList<>();
+                    for (Person person : query.run(p)) {
+                        Partition owner = l.owner(person.personId());
+                        if (owner == p || owner.repo().findById(person.personId()).isEmpty()) kept.add(person);
+                    }
+                    return kept;
+                }));
+            } finally {
+                moveLock.readLock().unlock();
+            }
+        });
+    }
+
+    private static <T> List<T> flatten(List<List<T>> lists) {
+        List<T> out = new ArrayList<>();
+        for (List<T> l : lists) out.addAll(l);
+        return out;
+    }
+
+    /** Runs the task on every root of the layout in parallel; results are in root order. */
+    private <R> List<R> forEachPartition(Layout l, PartitionTask<R> task) throws IOException {
+        List<Partition> parts = l.partitions();
+        if (parts.size() == 1) return List.of(task.run(parts.getFirst()));
+
+        List<Future<R>> futures = new ArrayList<>();
+        for (Partition p : parts) {
+            futures.add(pool.submit(() -> {
+                try { return task.run(p); }
+                catch (IOException e) { throw new UncheckedIOException(e); }
+            }));
+        }
+        List<R> results = new ArrayList<>();
+        try {
+            for (Future<R> f : futures) results.add(f.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while querying partitions", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException u) throw u.getCause();
+            throw new IOException("Partition query failed", e.getCause());
+        }
+        return results;
+    }
+
+    /** The same root listed twice, or a copied root, would silently share ownership. */
+    private static void requireDistinctIds(List<Partition> parts) {
+        Map<String, Path> seen = new HashMap<>();
+        for (Partition p : parts) {
+            Path other = seen.putIfAbsent(p.id(), p.root());
+            if (other != null)
+                throw new IllegalArgumentException("Roots %s and %s have the same partition id %s".formatted(other, p.root(), p.id()));
+        }
+    }
+
+    private static NavigableMap<Long, Partition> buildRing(List<Partition> parts) {
+        NavigableMap<Long, Partition> ring = new TreeMap<>();
+        for (Partition p : parts) {
+            String key = p.id();
+            for (int v = 0; v < VIRTUAL_NODES; v++) {
+                ring.put(hash(key + "#" + v), p);
+            }
+        }
+        return ring;
+    }
+
+    /** 64-bit FNV-1a followed by the MurmurHash3 finalizer for better avalanche. */
+    private static long hash(String s) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : s.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,109 @@
+package main.repository;
+
+
+import main.dto.ArchivedPerson;
+import main.dto.Person;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+
+/**
+ * Cold storage for persons that left the hot {@code Internal}/{@code External} directories.
+ * <p>
+ * Records are appended to gzip segments ({@code segment-NNNNNN.gz}); every append is one
+ * complete gzip member, and segments are never reopened for writing after a restart, so a
+ * torn write can only affect the tail of the last segment. Lookups scan the segments, which
+ * is acceptable for a compliance tier that hot queries never touch.
+ */
+public class PersonArchive {
+    public static final long DEFAULT_SEGMENT_BYTES = 8L * 1024 * 1024;
+
+    private final Path dir;
+    private final long segmentBytes;
+    private Path current;
+    private long currentBytes;
+
+    public PersonArchive(Path dir) throws IOException {
+        this(dir, DEFAULT_SEGMENT_BYTES);
+    }
+
+    public PersonArchive(Path dir, long segmentBytes) throws IOException {
+        this.dir = Objects.requireNonNull(dir, "dir");
+        if (segmentBytes < 1) throw new IllegalArgumentException("segmentBytes must be positive");
+        this.segmentBytes = segmentBytes;
+        Files.createDirectories(dir);
+    }
+
+    public void append(Person person) throws IOException {
+        appendAll(List.of(person));
+    }
+
+    /** Writes all persons as a single gzip member, so bulk archival compresses well. */
+    public synchronized void appendAll(Collection<Person> persons) throws IOException {
+        if (persons.isEmpty()) return;
+        long now = System.currentTimeMillis();
+        ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(buf))) {
+            for (Person p : persons) {
+                out.writeLong(now);
+                ChangeLog.writePerson(out, p);
+            }
+        }
+        if (current == null || currentBytes >= segmentBytes) roll();
+        Files.write(current, buf.toByteArray(), StandardOpenOption.APPEND);
+        currentBytes += buf.size();
+    }
+
+    /** Latest archived version of the person, if any. */
+    public Optional<ArchivedPerson> findById(String personId) throws IOException {
+        List<ArchivedPerson> hits = findBy(p -> personId.equals(p.personId()));
+        return hits.isEmpty() ? Optional.empty() : Optional.of(hits.getLast());
+    }
+
+    /** Every archived entry matching the filter, oldest first. */
+    public List<ArchivedPerson> findBy(Predicate<Person> filter) throws IOException {
+        List<ArchivedPerson> out = new ArrayList<>();
+        for (Path segment : segments()) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                    new GZIPInputStream(Files.newInputStream(segment))))) {
+                while (true) {
+                    Instant at = Instant.ofEpochMilli(in.readLong());
+                    Person p = ChangeLog.readPerson(in);
+                    if (filter.test(p)) out.add(new ArchivedPerson(p, at));
+                }
+            } catch (EOFException | ZipException e) {
+                // end of segment, or a torn member at its tail
+            }
+        }
+        return out;
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> s = Files.list(dir)) {
+            return s.filter(p -> p.getFileName().toString().matches("segment-\\d+\\.gz"))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private void roll() throws IOException {
+        List<Path> existing = segments();
+        int next = 1;
+        if (!existing.isEmpty()) {
+            String last = existing.getLast().getFileName().toString();
+            next = Integer.parseInt(last.substring("segment-".length(), last.length() - ".gz".length())) + 1;
+        }
+        current = dir.resolve("segment-%06d.gz".formatted(next));
+        Files.createFile(current);
+        currentBytes = 0;
+    }
+}
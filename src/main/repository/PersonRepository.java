@@ -1,39 +1,84 @@
-package main.repository;
-
-
-import main.dto.Person;
-import main.enums.Type;
-
-import java.io.IOException;
-import java.util.List;
-import java.util.Optional;
-import java.util.function.Predicate;
-
-public interface PersonRepository {
-    Optional<Person> findById(String personId) throws IOException;
-
-    List<Person> findAll() throws IOException;
-
-    List<Person> findBy(Predicate<Person> filter) throws IOException;
-
-    void create(Person person) throws IOException;
-
-    boolean remove(String personId) throws IOException;
-
-    void update(Person person) throws IOException;
-
-    static Predicate<Person> by(
-            String personId, Type type, String firstName, String lastName,
-            String mobile, String email, String pesel
-    ) {
-        return p ->
-                (personId == null || personId.equals(p.personId())) &&
-                        (type == null || type == p.type()) &&
-                        (firstName == null || firstName.equalsIgnoreCase(p.firstName())) &&
-                        (lastName  == null || lastName.equalsIgnoreCase(p.lastName())) &&
-                        (mobile    == null || mobile.equals(p.mobile())) &&
-                        (email     == null || email.equalsIgnoreCase(p.email())) &&
-                        (pesel     == null || pesel.equals(p.pesel()));
-    }
-}
-
+package main.repository;
+
+
+import main.dto.ArchivedPerson;
+import main.dto.PartitionStats;
+import main.dto.Person;
+import main.enums.Type;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+public interface PersonRepository {
+    Optional<Person> findById(String personId) throws IOException;
+
+    List<Person> findAll() throws IOException;
+
+    List<Person> findBy(Predicate<Person> filter) throws IOException;
+
+    default List<Person> findAll(Type type) throws IOException {
+        if (type == null) return findAll();
+        return findBy(p -> p.type() == type);
+    }
+
+    default List<Person> findBy(Type type, Predicate<Person> filter) throws IOException {
+        if (type == null) return findBy(filter);
+        return findBy(filter.and(p -> p.type() == type));
+    }
+
+    default List<String> listIds() throws IOException {
+        return findAll().stream().map(Person::personId).toList();
+    }
+
+    default long count(Type type) throws IOException {
+        return findAll(type).size();
+    }
+
+    default PartitionStats stats(Type type) throws IOException {
+        return new PartitionStats(type, count(type), -1);
+    }
+
+    void create(Person person) throws IOException;
+
+    boolean remove(String personId) throws IOException;
+
+    void update(Person person) throws IOException;
+
+    /**
+     * Deletes the person without archiving it, even where {@link #remove} archives. Only meant
+     * for undoing a create that never committed.
+     */
+    default boolean purge(String personId) throws IOException {
+        return remove(personId);
+    }
+
+    /** Moves the person out of the live data; repositories without an archive simply remove it. */
+    default boolean archive(String personId) throws IOException {
+        return remove(personId);
+    }
+
+    default Optional<ArchivedPerson> findArchivedById(String personId) throws IOException {
+        return Optional.empty();
+    }
+
+    default List<ArchivedPerson> findArchivedBy(Predicate<Person> filter) throws IOException {
+        return List.of();
+    }
+
+    static Predicate<Person> by(
+            String personId, Type type, String firstName, String lastName,
+            String mobile, String email, String pesel
+    ) {
+        return p ->
+                (personId == null || personId.equals(p.personId())) &&
+                        (type == null || type == p.type()) &&
+                        (firstName == null || firstName.equalsIgnoreCase(p.firstName())) &&
+                        (lastName  == null || lastName.equalsIgnoreCase(p.lastName())) &&
+                        (mobile    == null || mobile.equals(p.mobile())) &&
+                        (email     == null || email.equalsIgnoreCase(p.email())) &&
+                        (pesel     == null || pesel.equals(p.pesel()));
+    }
+}
+
@@ -0,0 +1,409 @@
+package main.repository;
+
+
+import main.dto.ArchivedPerson;
+import main.dto.PartitionStats;
+import main.dto.Person;
+import main.dto.WarmUpProgress;
+import main.enums.Type;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+/**
+ * Multi-version, in-memory view over another {@link PersonRepository}.
+ * <p>
+ * Every write is applied to the delegate first and then published as a new version of the
+ * affected record. Readers work on a {@link Snapshot} pinned to the last committed version,
+ * so a record moved between types is seen exactly once and a long export sees one consistent
+ * dataset. Readers never take the write lock; writers only serialize among themselves.
+ * Superseded versions are trimmed once no open snapshot can still see them.
+ * <p>
+ * {@link #warmUp} returns a repository that serves immediately: until the background load has
+ * filled the in-memory versions, reads go straight to the delegate (a direct file lookup for
+ * {@code findById}), and they switch to the in-memory path once {@link #isReady()} is true.
+ */
+public class SnapshotPersonRepository implements PersonRepository {
+    private final PersonRepository delegate;
+
+    private final ConcurrentHashMap<String, Version> versions = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<Long, Integer> openSnapshots = new ConcurrentSkipListMap<>();
+    private final ConcurrentLinkedQueue<Retired> retired = new ConcurrentLinkedQueue<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final Object registry = new Object();
+    private volatile long committed;
+
+    private final CountDownLatch loadDone = new CountDownLatch(1);
+    private final AtomicLong loaded = new AtomicLong();
+    private volatile long total = -1;
+    private volatile IOException loadFailure;
+
+    public SnapshotPersonRepository(PersonRepository delegate) throws IOException {
+        this.delegate = Objects.requireNonNull(delegate, "delegate");
+        List<Person> all = delegate.findAll();
+        total = all.size();
+        for (Person p : all) {
+            versions.put(p.personId(), new Version(0, p, null));
+            loaded.incrementAndGet();
+        }
+        loadDone.countDown();
+    }
+
+    /** Starts the background load; used by {@link #warmUp}. */
+    private SnapshotPersonRepository(PersonRepository delegate, int threads, int maxPerSecond) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate");
+        Thread loader = new Thread(() -> load(threads, maxPerSecond), "person-warmup");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * Starts serving at once and loads records in the background.
+     *
+     * @param threads      number of loader threads reading records in parallel
+     * @param maxPerSecond upper bound on records loaded per second, or {@code 0} for no limit
+     */
+    public static SnapshotPersonRepository warmUp(PersonRepository delegate, int threads, int maxPerSecond) {
+        if (threads < 1) throw new IllegalArgumentException("threads must be positive");
+        if (maxPerSecond < 0) throw new IllegalArgumentException("maxPerSecond must not be negative");
+        return new SnapshotPersonRepository(delegate, threads, maxPerSecond);
+    }
+
+    private void load(int threads, int maxPerSecond) {
+        try {
+            List<String> ids = delegate.listIds();
+            total = ids.size();
+            AtomicInteger next = new AtomicInteger();
+            AtomicLong nextSlot = new AtomicLong(System.nanoTime());
+            long interval = maxPerSecond == 0 ? 0 : 1_000_000_000L / maxPerSecond;
+
+            List<Thread> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                Thread w = new Thread(() -> {
+                    int i;
+                    while (loadFailure == null && (i = next.getAndIncrement()) < ids.size()) {
+                        if (interval > 0) {
+                            long slot = nextSlot.getAndAdd(interval);
+                            LockSupport.parkNanos(slot - System.nanoTime());
+                        }
+                        String id = ids.get(i);
+                        try {
+                            // putIfAbsent: a write that raced with the loader already holds a newer version
+                            delegate.findById(id).ifPresent(p -> versions.putIfAbsent(id, new Version(0, p, null)));
+                        } catch (IOException e) {
+                            loadFailure = e;
+                        }
+                        loaded.incrementAndGet();
+                    }
+                }, "person-warmup-" + t);
+                w.setDaemon(true);
+                w.start();
+                workers.add(w);
+            }
+            for (Thread w : workers) w.join();
+            // seed the delegate's partition counters here rather than on the first count() call
+            delegate.count(null);
+        } catch (IOException e) {
+            loadFailure = e;
+        } catch (InterruptedException e) {
+            loadFailure = new IOException("Warm-up interrupted", e);
+            Thread.currentThread().interrupt();
+        } finally {
+            loadDone.countDown();
+        }
+        if (loadFailure == null) sweepTombstones();
+    }
+
+    /** Queues the removals kept as tombstones during the load so {@link #reclaim} can drop them. */
+    private void sweepTombstones() {
+        writeLock.lock();
+        try {
+            versions.forEach((id, head) -> {
+                if (head.person == null) retired.add(new Retired(head.version, id));
+            });
+            reclaim();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /** True once every record is held in memory and reads are served from it. */
+    public boolean isReady() {
+        return loadDone.getCount() == 0 && loadFailure == null;
+    }
+
+    public WarmUpProgress progress() {
+        IOException failure = loadFailure;
+        return new WarmUpProgress(loaded.get(), total, isReady(),
+                failure == null ? null : String.valueOf(failure.getMessage()));
+    }
+
+    /** Blocks until the background load finishes; rethrows its failure, if any. */
+    public boolean awaitReady(long timeout, TimeUnit unit) throws IOException, InterruptedException {
+        if (!loadDone.await(timeout, unit)) return false;
+        if (loadFailure != null) throw new IOException("Warm-up failed", loadFailure);
+        return true;
+    }
+
+    /** One committed value of a record; {@code person == null} marks a removal. */
+    private static final class Version {
+        final long version;
+        final Person person;
+        volatile Version older;
+
+        Version(long version, Person person, Version older) {
+            this.version = version;
+            this.person = person;
+            this.older = older;
+        }
+    }
+
+    private record Retired(long supersededAt, String personId) {}
+
+    public final class Snapshot implements AutoCloseable {
+        private final long version;
+        private boolean closed;
+
+        private Snapshot(long version) {
+            this.version = version;
+        }
+
+        public long version() { return version; }
+
+        public Optional<Person> findById(String personId) {
+            return Optional.ofNullable(visible(versions.get(personId)));
+        }
+
+        public List<Person> findAll() {
+            return findBy(p -> true);
+        }
+
+        public List<Person> findAll(Type type) {
+            return findBy(type, p -> true);
+        }
+
+        public List<Person> findBy(Predicate<Person> filter) {
+            List<Person> out = new ArrayList<>();
+            for (Version head : versions.values()) {
+                Person p = visible(head);
+                if (p != null && filter.test(p)) out.add(p);
+            }
+            return out;
+        }
+
+        public List<Person> findBy(Type type, Predicate<Person> filter) {
+            if (type == null) return findBy(filter);
+            return findBy(filter.and(p -> p.type() == type));
+        }
+
+        public long count(Type type) {
+            return findAll(type).size();
+        }
+
+        public List<String> listIds() {
+            List<String> ids = new ArrayList<>();
+            versions.forEach((id, head) -> {
+                if (visible(head) != null) ids.add(id);
+            });
+            return ids;
+        }
+
+        private Person visible(Version head) {
+            for (Version v = head; v != null; v = v.older) {
+                if (v.version <= version) return v.person;
+            }
+            return null;
+        }
+
+        @Override
+        public void close() {
+            synchronized (registry) {
+                if (closed) return;
+                closed = true;
+                openSnapshots.computeIfPresent(version, (k, n) -> n == 1 ? null : n - 1);
+            }
+            if (writeLock.tryLock()) {
+                try { reclaim(); } finally { writeLock.unlock(); }
+            }
+        }
+    }
+
+    /**
+     * Pins the current committed version; the caller must close the snapshot when done.
+     * Waits for the background load to finish first.
+     */
+    public Snapshot snapshot() {
+        boolean interrupted = false;
+        while (loadDone.getCount() > 0) {
+            try { loadDone.await(); } catch (InterruptedException e) { interrupted = true; }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+        if (loadFailure != null) throw new IllegalStateException("Warm-up failed", loadFailure);
+        synchronized (registry) {
+            long v = committed;
+            openSnapshots.merge(v, 1, Integer::sum);
+            return new Snapshot(v);
+        }
+    }
+
+    public long committedVersion() { return committed; }
+
+    @Override
+    public Optional<Person> findById(String personId) throws IOException {
+        if (!isReady()) return delegate.findById(personId);
+        try (Snapshot s = snapshot()) { return s.findById(personId); }
+    }
+
+    @Override
+    public List<Person> findAll() throws IOException {
+        if (!isReady()) return delegate.findAll();
+        try (Snapshot s = snapshot()) { return s.findAll(); }
+    }
+
+    @Override
+    public List<Person> findAll(Type type) throws IOException {
+        if (!isReady()) return delegate.findAll(type);
+        try (Snapshot s = snapshot()) { return s.findAll(type); }
+    }
+
+    @Override
+    public List<Person> findBy(Predicate<Person> filter) throws IOException {
+        if (!isReady()) return delegate.findBy(filter);
+        try (Snapshot s = snapshot()) { return s.findBy(filter); }
+    }
+
+    @Override
+    public List<Person> findBy(Type type, Predicate<Person> filter) throws IOException {
+        if (!isReady()) return delegate.findBy(type, filter);
+        try (Snapshot s = snapshot()) { return s.findBy(type, filter); }
+    }
+
+    @Override
+    public List<String> listIds() throws IOException {
+        if (!isReady()) return delegate.listIds();
+        try (Snapshot s = snapshot()) { return s.listIds(); }
+    }
+
+    @Override
+    public long count(Type type) throws IOException {
+        if (!isReady()) return delegate.count(type);
+        try (Snapshot s = snapshot()) { return s.count(type); }
+    }
+
+    @Override
+    public PartitionStats stats(Type type) throws IOException {
+        return delegate.stats(type);
+    }
+
+    @Override
+    public void create(Person person) throws IOException {
+        writeLock.lock();
+        try {
+            delegate.create(person);
+            publish(person.personId(), person);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(String personId) throws IOException {
+        writeLock.lock();
+        try {
+            boolean removed = delegate.remove(personId);
+            if (removed) publish(personId, null);
+            return removed;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean purge(String personId) throws IOException {
+        writeLock.lock();
+        try {
+            boolean removed = delegate.purge(personId);
+            if (removed) publish(personId, null);
+            return removed;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean archive(String personId) throws IOException {
+        writeLock.lock();
+        try {
+            boolean archived = delegate.archive(personId);
+            if (archived) publish(personId, null);
+            return archived;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public Optional<ArchivedPerson> findArchivedById(String personId) throws IOException {
+        return delegate.findArchivedById(personId);
+    }
+
+    @Override
+    public List<ArchivedPerson> findArchivedBy(Predicate<Person> filter) throws IOException {
+        return delegate.findArchivedBy(filter);
+    }
+
+    @Override
+    public void update(Person person) throws IOException {
+        writeLock.lock();
+        try {
+            delegate.update(person);
+            publish(person.personId(), person);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void publish(String personId, Person person) {
+        long next = committed + 1;
+        Version head = versions.compute(personId, (k, old) -> new Version(next, person, old));
+        if (head.older != null || person == null) retired.add(new Retired(next, personId));
+        committed = next;
+        reclaim();
+    }
+
+    /** Drops versions no open snapshot can reach. Must be called while holding the write lock. */
+    private void reclaim() {
+        long floor;
+        synchronized (registry) {
+            floor = openSnapshots.isEmpty() ? committed : Math.min(openSnapshots.firstKey(), committed);
+        }
+        Retired r;
+        while ((r = retired.peek()) != null && r.supersededAt() <= floor) {
+            retired.poll();
+            versions.computeIfPresent(r.personId(), (k, head) -> trim(head, floor));
+        }
+    }
+
+    private Version trim(Version head, long floor) {
+        for (Version v = head; v != null; v = v.older) {
+            if (v.version <= floor) {
+                v.older = null;
+                // while loading, the tombstone stops the loader from resurrecting a removed record;
+                // sweepTombstones() queues it again once the load is done
+                if (v == head && head.person == null && isReady()) return null;
+                break;
+            }
+        }
+        return head;
+    }
+}
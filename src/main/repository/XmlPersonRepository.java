@@ -1,173 +1,362 @@
-package main.repository;
-
-
-import main.dto.Person;
-import main.enums.Type;
-import main.util.XmlUtils;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.transform.OutputKeys;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
-import java.io.UncheckedIOException;
-import java.nio.file.*;
-import java.util.*;
-import java.util.function.Predicate;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
-
-
-public class XmlPersonRepository implements PersonRepository {
-    private final Path root;
-
-    public XmlPersonRepository(Path root) throws IOException {
-        this.root = Objects.requireNonNull(root, "root");
-        initDirs();
-    }
-
-    private void initDirs() throws IOException {
-        Files.createDirectories(root.resolve("Internal"));
-        Files.createDirectories(root.resolve("External"));
-    }
-
-    private Path pathOf(Type type, String personId) {
-        return root.resolve(type.toDirectoryName()).resolve(personId + ".xml");
-    }
-
-    private Optional<Path> locateById(String personId) {
-        Path in = root.resolve("Internal").resolve(personId + ".xml");
-        if (Files.exists(in)) return Optional.of(in);
-        Path ex = root.resolve("External").resolve(personId + ".xml");
-        if (Files.exists(ex)) return Optional.of(ex);
-        return Optional.empty();
-    }
-
-    @Override
-    public Optional<Person> findById(String personId) throws IOException {
-        var p = locateById(personId);
-        if (p.isEmpty()) return Optional.empty();
-        return Optional.of(readPerson(p.get()));
-    }
-
-    @Override
-    public List<Person> findAll() throws IOException {
-        try (Stream<Path> s1 = Files.list(root.resolve("Internal"));
-             Stream<Path> s2 = Files.list(root.resolve("External"))) {
-            return Stream.concat(s1, s2)
-                    .filter(p -> p.toString().endsWith(".xml"))
-                    .map(path -> {
-                        try { return readPerson(path); }
-                        catch (IOException e) { throw new UncheckedIOException(e); }
-                    })
-                    .collect(Collectors.toList());
-        } catch (UncheckedIOException e) {
-            throw e.getCause();
-        }
-    }
-
-    @Override
-    public List<Person> findBy(Predicate<Person> filter) throws IOException {
-        return findAll().stream().filter(filter).toList();
-    }
-
-    @Override
-    public void create(Person person) throws IOException {
-        Path target = pathOf(person.type(), person.personId());
-        if (Files.exists(target)) throw new IOException("File already exists: " + target);
-        writePersonAtomically(person, target);
-    }
-
-    @Override
-    public boolean remove(String personId) throws IOException {
-        var p = locateById(personId);
-        if (p.isEmpty()) return false;
-        return Files.deleteIfExists(p.get());
-    }
-
-    @Override
-    public void update(Person person) throws IOException {
-        var existing = locateById(person.personId());
-        Path target = pathOf(person.type(), person.personId());
-        if (existing.isPresent() && !existing.get().equals(target)) {
-            Files.deleteIfExists(existing.get());
-        }
-        writePersonAtomically(person, target);
-    }
-
-    private Person readPerson(Path file) throws IOException {
-        try (InputStream in = Files.newInputStream(file)) {
-            DocumentBuilder db = XmlUtils.secureDbf().newDocumentBuilder();
-            Document doc = db.parse(in);
-
-            String id     = text(doc, "personId");
-            String first  = text(doc, "firstName");
-            String last   = text(doc, "lastName");
-            String mobile = text(doc, "mobile");
-            String email  = text(doc, "email");
-            String pesel  = text(doc, "pesel");
-
-            Type type = Type.fromDirectoryName(file.getParent().getFileName().toString());
-
-            return new Person(id, type, first, last, emptyToNull(mobile), emptyToNull(email), emptyToNull(pesel));
-        } catch (IOException e) {
-            throw e;
-        } catch (Exception e) {
-            throw new IOException("Failed to parse XML: " + file, e);
-        }
-    }
-
-    private static String text(Document doc, String tag) {
-        var nodes = doc.getElementsByTagName(tag);
-        if (nodes == null || nodes.getLength() == 0) return null;
-        return nodes.item(0).getTextContent();
-    }
-
-    private static String emptyToNull(String v) { return (v == null || v.isBlank()) ? null : v; }
-
-    private void writePersonAtomically(Person p, Path target) throws IOException {
-        Files.createDirectories(target.getParent());
-        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
-
-        try (OutputStream out = Files.newOutputStream(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
-            var db = XmlUtils.secureDbf().newDocumentBuilder();
-            var doc = db.newDocument();
-
-            Element rootEl = doc.createElement("person");
-            doc.appendChild(rootEl);
-
-            append(doc, rootEl, "personId", p.personId());
-            append(doc, rootEl, "firstName", p.firstName());
-            append(doc, rootEl, "lastName", p.lastName());
-            append(doc, rootEl, "mobile", nvl(p.mobile()));
-            append(doc, rootEl, "email",  nvl(p.email()));
-            append(doc, rootEl, "pesel",  nvl(p.pesel()));
-
-            var tf = TransformerFactory.newInstance().newTransformer();
-            tf.setOutputProperty(OutputKeys.INDENT, "yes");
-            tf.setOutputProperty("{http://xml.apache.org/xslt}indent-amount", "2");
-            tf.transform(new DOMSource(doc), new StreamResult(out));
-        } catch (Exception e) {
-            throw new IOException("Failed to write XML for: " + p.personId(), e);
-        }
-
-        try {
-            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
-        } catch (AtomicMoveNotSupportedException ex) {
-            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
-        }
-    }
-
-    private static String nvl(String v) { return v == null ? "" : v; }
-
-    private static void append(Document doc, Element parent, String tag, String text) {
-        Element el = doc.createElement(tag);
-        el.setTextContent(text == null ? "" : text);
-        parent.appendChild(el);
-    }
-}
+package main.repository;
+
+
+import main.dto.ArchivedPerson;
+import main.dto.PartitionStats;
+import main.dto.Person;
+import main.enums.Type;
+import main.util.XmlUtils;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+
+public class XmlPersonRepository implements PersonRepository {
+    private final Path root;
+    private final Map<Type, Partition> partitions = new EnumMap<>(Type.class);
+    private final boolean archiveOnRemove;
+    private PersonArchive archive;
+
+    public XmlPersonRepository(Path root) throws IOException {
+        this(root, false);
+    }
+
+    /**
+     * @param archiveOnRemove when true, {@link #remove} moves the record to the archive
+     *                        ({@code root/Archive}) instead of deleting it
+     */
+    public XmlPersonRepository(Path root, boolean archiveOnRemove) throws IOException {
+        this.root = Objects.requireNonNull(root, "root");
+        this.archiveOnRemove = archiveOnRemove;
+        initDirs();
+    }
+
+    /**
+     * Each {@link Type} is a physical partition: one directory plus running record/byte counters.
+     * The counters are seeded from a directory listing on the first {@link #count}/{@link #stats}
+     * call, not at construction, and kept current by every write after that. Writes hold the
+     * read lock around the file change and the counter update; seeding holds the write lock, so
+     * no write can be counted twice or missed.
+     */
+    private static final class Partition {
+        final Path dir;
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        final AtomicLong records = new AtomicLong();
+        final AtomicLong bytes = new AtomicLong();
+        volatile boolean seeded;
+
+        Partition(Path dir) {
+            this.dir = dir;
+        }
+
+        void added(long size)   { if (seeded) { records.incrementAndGet(); bytes.addAndGet(size); } }
+        void removed(long size) { if (seeded) { records.decrementAndGet(); bytes.addAndGet(-size); } }
+    }
+
+    private void initDirs() throws IOException {
+        for (Type type : Type.values()) {
+            Partition part = new Partition(root.resolve(type.toDirectoryName()));
+            Files.createDirectories(part.dir);
+            partitions.put(type, part);
+        }
+    }
+
+    private Partition seeded(Partition part) throws IOException {
+        if (part.seeded) return part;
+        part.lock.writeLock().lock();
+        try {
+            if (part.seeded) return part;
+            long records = 0, bytes = 0;
+            for (Path file : listXml(part.dir)) {
+                try {
+                    bytes += Files.size(file);
+                    records++;
+                } catch (NoSuchFileException ignored) {
+                    // removed behind our back between listing and stat
+                }
+            }
+            part.records.set(records);
+            part.bytes.set(bytes);
+            part.seeded = true;
+            return part;
+        } finally {
+            part.lock.writeLock().unlock();
+        }
+    }
+
+    private static void lockWrites(Collection<Partition> parts) {
+        for (Partition part : parts) part.lock.readLock().lock();
+    }
+
+    private static void unlockWrites(Collection<Partition> parts) {
+        for (Partition part : parts) part.lock.readLock().unlock();
+    }
+
+    private Partition partition(Type type) {
+        return partitions.get(Objects.requireNonNull(type, "type"));
+    }
+
+    private Path pathOf(Type type, String personId) {
+        return partition(type).dir.resolve(personId + ".xml");
+    }
+
+    private Optional<Path> locateById(String personId) {
+        for (Partition part : partitions.values()) {
+            Path file = part.dir.resolve(personId + ".xml");
+            if (Files.exists(file)) return Optional.of(file);
+        }
+        return Optional.empty();
+    }
+
+    private static List<Path> listXml(Path dir) throws IOException {
+        try (Stream<Path> s = Files.list(dir)) {
+            return s.filter(p -> p.toString().endsWith(".xml")).toList();
+        }
+    }
+
+    @Override
+    public Optional<Person> findById(String personId) throws IOException {
+        var p = locateById(personId);
+        if (p.isEmpty()) return Optional.empty();
+        return Optional.of(readPerson(p.get()));
+    }
+
+    @Override
+    public List<Person> findAll() throws IOException {
+        List<Person> all = new ArrayList<>();
+        for (Type type : partitions.keySet()) {
+            all.addAll(findAll(type));
+        }
+        return all;
+    }
+
+    @Override
+    public List<Person> findAll(Type type) throws IOException {
+        if (type == null) return findAll();
+        try {
+            return listXml(partition(type).dir).stream()
+                    .map(path -> {
+                        try { return readPerson(path); }
+                        catch (IOException e) { throw new UncheckedIOException(e); }
+                    })
+                    .collect(Collectors.toList());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    @Override
+    public List<Person> findBy(Predicate<Person> filter) throws IOException {
+        return findAll().stream().filter(filter).toList();
+    }
+
+    @Override
+    public List<Person> findBy(Type type, Predicate<Person> filter) throws IOException {
+        return findAll(type).stream().filter(filter).toList();
+    }
+
+    @Override
+    public List<String> listIds() throws IOException {
+        List<String> ids = new ArrayList<>();
+        for (Partition part : partitions.values()) {
+            for (Path file : listXml(part.dir)) {
+                String name = file.getFileName().toString();
+                ids.add(name.substring(0, name.length() - ".xml".length()));
+            }
+        }
+        return ids;
+    }
+
+    @Override
+    public long count(Type type) throws IOException {
+        return stats(type).records();
+    }
+
+    /** Statistics of one type partition, or of all of them when {@code type} is {@code null}. */
+    @Override
+    public PartitionStats stats(Type type) throws IOException {
+        Collection<Partition> parts = type == null ? partitions.values() : List.of(partition(type));
+        long records = 0, bytes = 0;
+        for (Partition part : parts) {
+            seeded(part);
+            records += part.records.get();
+            bytes += part.bytes.get();
+        }
+        return new PartitionStats(type, records, bytes);
+    }
+
+    @Override
+    public void create(Person person) throws IOException {
+        Partition part = partition(person.type());
+        Path target = part.dir.resolve(person.personId() + ".xml");
+        if (Files.exists(target)) throw new IOException("File already exists: " + target);
+        part.lock.readLock().lock();
+        try {
+            writePersonAtomically(person, target);
+            part.added(Files.size(target));
+        } finally {
+            part.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(String personId) throws IOException {
+        if (archiveOnRemove) return archive(personId);
+        return purge(personId);
+    }
+
+    @Override
+    public boolean purge(String personId) throws IOException {
+        var p = locateById(personId);
+        if (p.isEmpty()) return false;
+        return delete(p.get());
+    }
+
+    @Override
+    public boolean archive(String personId) throws IOException {
+        var p = locateById(personId);
+        if (p.isEmpty()) return false;
+        archive().append(readPerson(p.get()));
+        return delete(p.get());
+    }
+
+    @Override
+    public Optional<ArchivedPerson> findArchivedById(String personId) throws IOException {
+        return archive().findById(personId);
+    }
+
+    @Override
+    public List<ArchivedPerson> findArchivedBy(Predicate<Person> filter) throws IOException {
+        return archive().findBy(filter);
+    }
+
+    /** Opened on first use, so repositories that never archive pay nothing for it. */
+    private synchronized PersonArchive archive() throws IOException {
+        if (archive == null) archive = new PersonArchive(root.resolve("Archive"));
+        return archive;
+    }
+
+    private boolean delete(Path file) throws IOException {
+        Partition part = partitionOf(file);
+        part.lock.readLock().lock();
+        try {
+            long size = Files.size(file);
+            boolean deleted = Files.deleteIfExists(file);
+            if (deleted) part.removed(size);
+            return deleted;
+        } finally {
+            part.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void update(Person person) throws IOException {
+        Path target = pathOf(person.type(), person.personId());
+        lockWrites(partitions.values());
+        try {
+            var existing = locateById(person.personId());
+            if (existing.isPresent()) {
+                long size = Files.size(existing.get());
+                if (!existing.get().equals(target)) {
+                    Files.deleteIfExists(existing.get());
+                }
+                partitionOf(existing.get()).removed(size);
+            }
+            writePersonAtomically(person, target);
+            partition(person.type()).added(Files.size(target));
+        } finally {
+            unlockWrites(partitions.values());
+        }
+    }
+
+    private Partition partitionOf(Path file) {
+        return partition(Type.fromDirectoryName(file.getParent().getFileName().toString()));
+    }
+
+    private Person readPerson(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            DocumentBuilder db = XmlUtils.secureDbf().newDocumentBuilder();
+            Document doc = db.parse(in);
+
+            String id     = text(doc, "personId");
+            String first  = text(doc, "firstName");
+            String last   = text(doc, "lastName");
+            String mobile = text(doc, "mobile");
+            String email  = text(doc, "email");
+            String pesel  = text(doc, "pesel");
+
+            Type type = Type.fromDirectoryName(file.getParent().getFileName().toString());
+
+            return new Person(id, type, first, last, emptyToNull(mobile), emptyToNull(email), emptyToNull(pesel));
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Failed to parse XML: " + file, e);
+        }
+    }
+
+    private static String text(Document doc, String tag) {
+        var nodes = doc.getElementsByTagName(tag);
+        if (nodes == null || nodes.getLength() == 0) return null;
+        return nodes.item(0).getTextContent();
+    }
+
+    private static String emptyToNull(String v) { return (v == null || v.isBlank()) ? null : v; }
+
+    private void writePersonAtomically(Person p, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+
+        try (OutputStream out = Files.newOutputStream(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            var db = XmlUtils.secureDbf().newDocumentBuilder();
+            var doc = db.newDocument();
+
+            Element rootEl = doc.createElement("person");
+            doc.appendChild(rootEl);
+
+            append(doc, rootEl, "personId", p.personId());
+            append(doc, rootEl, "firstName", p.firstName());
+            append(doc, rootEl, "lastName", p.lastName());
+            append(doc, rootEl, "mobile", nvl(p.mobile()));
+            append(doc, rootEl, "email",  nvl(p.email()));
+            append(doc, rootEl, "pesel",  nvl(p.pesel()));
+
+            var tf = TransformerFactory.newInstance().newTransformer();
+            tf.setOutputProperty(OutputKeys.INDENT, "yes");
+            tf.setOutputProperty("{http://xml.apache.org/xslt}indent-amount", "2");
+            tf.transform(new DOMSource(doc), new StreamResult(out));
+        } catch (Exception e) {
+            throw new IOException("Failed to write XML for: " + p.personId(), e);
+        }
+
+        try {
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static String nvl(String v) { return v == null ? "" : v; }
+
+    private static void append(Document doc, Element parent, String tag, String text) {
+        Element el = doc.createElement(tag);
+        el.setTextContent(text == null ? "" : text);
+        parent.appendChild(el);
+    }
+}
@@ -0,0 +1,124 @@
+package main.service;
+
+
+import main.dto.Person;
+import main.dto.PersonChange;
+import main.enums.ChangeKind;
+import main.repository.ChangeLog;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sequenced stream of person mutations backed by a {@link ChangeLog}.
+ * <p>
+ * Every change is appended to the log before it is offered to subscribers, so the log is the
+ * source of truth. Each subscription has a bounded queue; when a consumer falls behind and its
+ * queue fills up, the feed stops queueing for it and the consumer catches up from the log instead.
+ * Writers are never blocked by slow consumers and no change is lost.
+ */
+public class ChangeFeed implements AutoCloseable {
+    private final ChangeLog log;
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    public ChangeFeed(ChangeLog log) {
+        this.log = Objects.requireNonNull(log, "log");
+    }
+
+    public long lastSequence() { return log.lastSequence(); }
+
+    /** Identity of the underlying log; see {@link ChangeLog#logId()}. */
+    public String logId() { return log.logId(); }
+
+    synchronized PersonChange publish(ChangeKind kind, String personId, Person before, Person after) throws IOException {
+        var change = new PersonChange(log.lastSequence() + 1, kind, personId, before, after, Instant.now());
+        log.append(change);
+        for (Subscription s : subscriptions) s.offer(change);
+        return change;
+    }
+
+    /** Replays from {@code fromSequence} out of the log, then follows live changes. */
+    public Subscription subscribe(long fromSequence, int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("capacity must be positive");
+        var s = new Subscription(Math.max(1, fromSequence), capacity);
+        subscriptions.add(s);
+        return s;
+    }
+
+    /** Follows changes published after this call. */
+    public Subscription subscribe(int capacity) {
+        return subscribe(lastSequence() + 1, capacity);
+    }
+
+    @Override
+    public void close() throws IOException {
+        subscriptions.forEach(Subscription::close);
+        log.close();
+    }
+
+    public final class Subscription implements AutoCloseable {
+        private final int capacity;
+        private final ArrayBlockingQueue<PersonChange> live;
+        private final ArrayDeque<PersonChange> replay = new ArrayDeque<>();
+        private volatile boolean lagging = true;
+        private volatile long nextSequence;
+
+        private Subscription(long fromSequence, int capacity) {
+            this.capacity = capacity;
+            this.live = new ArrayBlockingQueue<>(capacity);
+            this.nextSequence = fromSequence;
+        }
+
+        private void offer(PersonChange change) {
+            if (!lagging && !live.offer(change)) lagging = true;
+        }
+
+        /** Sequence number of the next change this subscriber will receive. */
+        public long nextSequence() { return nextSequence; }
+
+        /** Next change in sequence order, or {@code null} if none arrives within the timeout. */
+        public synchronized PersonChange poll(long timeout, TimeUnit unit) throws IOException, InterruptedException {
+            long deadline = System.nanoTime() + unit.toNanos(timeout);
+            while (true) {
+                PersonChange c = replay.poll();
+                if (c == null) c = live.poll();
+                if (c == null && lagging) {
+                    lagging = false;
+                    fillFromLog();
+                    continue;
+                }
+                if (c == null) {
+                    long left = deadline - System.nanoTime();
+                    if (left <= 0) return null;
+                    c = live.poll(left, TimeUnit.NANOSECONDS);
+                    if (c == null) return null;
+                }
+                if (c.sequence() < nextSequence) continue;
+                if (c.sequence() > nextSequence) {
+                    fillFromLog();
+                    continue;
+                }
+                nextSequence++;
+                return c;
+            }
+        }
+
+        private void fillFromLog() throws IOException {
+            replay.clear();
+            replay.addAll(log.read(nextSequence, capacity));
+            if (replay.size() == capacity) lagging = true;
+        }
+
+        @Override
+        public void close() {
+            subscriptions.remove(this);
+            live.clear();
+        }
+    }
+}
@@ -1,59 +1,176 @@
-package main.service;
-
-
-import main.exception.PersonAlreadyExistsException;
-import main.exception.PersonNotFoundException;
-import main.dto.Person;
-import main.enums.Type;
-import main.repository.PersonRepository;
-import main.validation.Validators;
-
-import java.io.IOException;
-import java.util.*;
-import java.util.function.Predicate;
-
-public class PersonService {
-    private final PersonRepository repo;
-
-    public PersonService(PersonRepository repo) {
-        this.repo = Objects.requireNonNull(repo, "repo");
-    }
-
-
-    public Optional<Person> find(String personId, Type type,
-                                 String firstName, String lastName,
-                                 String mobile, String pesel, String email) throws IOException {
-        Predicate<Person> filter = PersonRepository.by(personId, type, firstName, lastName, mobile, email, pesel);
-        var list = repo.findBy(filter);
-        if (list.isEmpty()) return Optional.empty();
-        return Optional.of(list.getFirst());
-    }
-
-    public List<Person> findAllBy(String personId, Type type,
-                                  String firstName, String lastName,
-                                  String mobile, String pesel, String email) throws IOException {
-        Predicate<Person> filter = PersonRepository.by(personId, type, firstName, lastName, mobile, email, pesel);
-        return repo.findBy(filter);
-    }
-
-    public void create(Person person) throws IOException {
-        Validators.validateNew(person);
-        if (repo.findById(person.personId()).isPresent())
-            throw new PersonAlreadyExistsException("Person with id %s already exists".formatted(person.personId()));
-        repo.create(person);
-    }
-
-    public boolean remove(String personId) throws IOException {
-        return repo.remove(personId);
-    }
-
-    public void modify(Person person) throws IOException {
-        Validators.validateUpdate(person);
-        if (repo.findById(person.personId()).isEmpty())
-            throw new PersonNotFoundException("Person with id %s not found".formatted(person.personId()));
-        repo.update(person);
-    }
-
-    public static String newId() { return UUID.randomUUID().toString(); }
-}
-
+package main.service;
+
+
+import main.exception.PersonAlreadyExistsException;
+import main.exception.PersonNotFoundException;
+import main.dto.ArchivedPerson;
+import main.dto.PartitionStats;
+import main.dto.Person;
+import main.enums.ChangeKind;
+import main.enums.Type;
+import main.repository.PersonRepository;
+import main.validation.Validators;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.function.Predicate;
+
+public class PersonService {
+    private final PersonRepository repo;
+    private final ChangeFeed changes;
+
+    public PersonService(PersonRepository repo) {
+        this(repo, null);
+    }
+
+    public PersonService(PersonRepository repo, ChangeFeed changes) {
+        this.repo = Objects.requireNonNull(repo, "repo");
+        this.changes = changes;
+    }
+
+    public Optional<ChangeFeed> changes() { return Optional.ofNullable(changes); }
+
+
+    public Optional<Person> find(String personId, Type type,
+                                 String firstName, String lastName,
+                                 String mobile, String pesel, String email) throws IOException {
+        Predicate<Person> filter = PersonRepository.by(personId, type, firstName, lastName, mobile, email, pesel);
+        var list = repo.findBy(type, filter);
+        if (list.isEmpty()) return Optional.empty();
+        return Optional.of(list.getFirst());
+    }
+
+    public List<Person> findAllBy(String personId, Type type,
+                                  String firstName, String lastName,
+                                  String mobile, String pesel, String email) throws IOException {
+        Predicate<Person> filter = PersonRepository.by(personId, type, firstName, lastName, mobile, email, pesel);
+        return repo.findBy(type, filter);
+    }
+
+    /**
+     * Like {@link #findAllBy}, optionally extended with archived persons (latest archived
+     * version of each id that is not present in the live data). A person who is live is always
+     * reported with the live data, or not at all if that does not match the filter.
+     */
+    public List<Person> findAllBy(String personId, Type type,
+                                  String firstName, String lastName,
+                                  String mobile, String pesel, String email,
+                                  boolean includeArchived) throws IOException {
+        List<Person> live = findAllBy(personId, type, firstName, lastName, mobile, pesel, email);
+        if (!includeArchived) return live;
+
+        // pick the latest archived version of each id first, then filter, so an older
+        // version that happens to match never stands in for a newer one that does not
+        Map<String, ArchivedPerson> latest = new LinkedHashMap<>();
+        Predicate<Person> sameId = PersonRepository.by(personId, null, null, null, null, null, null);
+        for (ArchivedPerson a : repo.findArchivedBy(sameId)) {
+            latest.merge(a.person().personId(), a, (x, y) -> y.archivedAt().isBefore(x.archivedAt()) ? x : y);
+        }
+
+        Predicate<Person> filter = PersonRepository.by(personId, type, firstName, lastName, mobile, email, pesel);
+        Map<String, Person> merged = new LinkedHashMap<>();
+        for (Person p : live) merged.put(p.personId(), p);
+        for (ArchivedPerson a : latest.values()) {
+            Person p = a.person();
+            if (merged.containsKey(p.personId()) || !filter.test(p)) continue;
+            // live but filtered out: the archived copy is stale and must not stand in for it
+            if (repo.findById(p.personId()).isPresent()) continue;
+            merged.put(p.personId(), p);
+        }
+        return new ArrayList<>(merged.values());
+    }
+
+    public Optional<ArchivedPerson> findArchived(String personId) throws IOException {
+        return repo.findArchivedById(personId);
+    }
+
+    public long count(Type type) throws IOException {
+        return repo.count(type);
+    }
+
+    public PartitionStats stats(Type type) throws IOException {
+        return repo.stats(type);
+    }
+
+    public void create(Person person) throws IOException {
+        Validators.validateNew(person);
+        synchronized (this) {
+            if (repo.findById(person.personId()).isPresent())
+                throw new PersonAlreadyExistsException("Person with id %s already exists".formatted(person.personId()));
+            repo.create(person);
+            publish(ChangeKind.CREATE, person.personId(), null, person);
+        }
+    }
+
+    public boolean remove(String personId) throws IOException {
+        return delete(ChangeKind.REMOVE, personId);
+    }
+
+    public boolean archive(String personId) throws IOException {
+        return delete(ChangeKind.ARCHIVE, personId);
+    }
+
+    /**
+     * Removals are logged before they are applied: once the repository has archived a record,
+     * the archived copy cannot be taken back. If the repository then fails, a CREATE restoring
+     * the record is logged so the log still matches the data.
+     */
+    private boolean delete(ChangeKind kind, String personId) throws IOException {
+        synchronized (this) {
+            if (changes == null) return applyDelete(kind, personId);
+            var before = repo.findById(personId);
+            if (before.isEmpty()) return false;
+            changes.publish(kind, personId, before.get(), null);
+            try {
+                applyDelete(kind, personId);
+                return true;
+            } catch (IOException | RuntimeException e) {
+                try {
+                    if (repo.findById(personId).isPresent())
+                        changes.publish(ChangeKind.CREATE, personId, null, before.get());
+                } catch (IOException | RuntimeException undo) {
+                    e.addSuppressed(undo);
+                }
+                throw e;
+            }
+        }
+    }
+
+    private boolean applyDelete(ChangeKind kind, String personId) throws IOException {
+        return kind == ChangeKind.ARCHIVE ? repo.archive(personId) : repo.remove(personId);
+    }
+
+    public void modify(Person person) throws IOException {
+        Validators.validateUpdate(person);
+        synchronized (this) {
+            var before = repo.findById(person.personId());
+            if (before.isEmpty())
+                throw new PersonNotFoundException("Person with id %s not found".formatted(person.personId()));
+            repo.update(person);
+            publish(ChangeKind.UPDATE, person.personId(), before.get(), person);
+        }
+    }
+
+    /**
+     * Records a create or update that has already been applied to the repository. If the log
+     * append fails, the repository change is reverted before the error is rethrown, so the data
+     * never runs ahead of the change log. A reverted create is purged, never archived.
+     */
+    private void publish(ChangeKind kind, String personId, Person before, Person after) throws IOException {
+        if (changes == null) return;
+        try {
+            changes.publish(kind, personId, before, after);
+        } catch (IOException | RuntimeException e) {
+            try {
+                if (before == null) repo.purge(personId);
+                else repo.update(before);
+            } catch (IOException | RuntimeException undo) {
+                e.addSuppressed(undo);
+            }
+            throw e;
+        }
+    }
+
+    public static String newId() { return UUID.randomUUID().toString(); }
+}
+
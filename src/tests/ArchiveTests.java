@@ -0,0 +1,85 @@
+package tests;
+
+import main.dto.Person;
+import main.enums.Type;
+import main.repository.PersonArchive;
+import main.repository.XmlPersonRepository;
+import main.service.PersonService;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.List;
+
+import static tests.TestData.person;
+
+public class ArchiveTests {
+
+    public static void main(String[] args) throws Exception {
+        Path tempRoot = Files.createTempDirectory("people-archive-tests");
+        try {
+            testRemoveMovesToArchive(tempRoot.resolve("remove"));
+            testSegmentsRollAndKeepHistory(tempRoot.resolve("segments"));
+            System.out.println("ArchiveTests: ALL PASSED");
+        } finally {
+            cleanup(tempRoot);
+        }
+    }
+
+    private static void testRemoveMovesToArchive(Path root) throws Exception {
+        PersonService service = new PersonService(new XmlPersonRepository(root, true));
+        service.create(person("A-1", Type.INTERNAL));
+        service.create(person("A-2", Type.EXTERNAL));
+        service.create(person("A-3", Type.EXTERNAL));
+
+        assert service.remove("A-1");
+        assert service.archive("A-2");
+        assert !service.archive("A-404");
+
+        assert service.findAllBy(null, null, null, null, null, null, null).size() == 1;
+        assert service.count(Type.EXTERNAL) == 1;
+        assert service.findArchived("A-1").orElseThrow().person().type() == Type.INTERNAL;
+
+        List<Person> all = service.findAllBy(null, null, null, null, null, null, null, true);
+        assert all.size() == 3;
+        assert service.findAllBy(null, Type.INTERNAL, null, null, null, null, null, true).size() == 1;
+
+        service.create(person("A-1", Type.EXTERNAL));
+        assert service.findAllBy("A-1", null, null, null, null, null, null, true).getFirst().type() == Type.EXTERNAL;
+        assert service.findAllBy("A-1", Type.INTERNAL, null, null, null, null, null, true).isEmpty();
+
+        service.create(person("A-5", Type.INTERNAL));
+        service.archive("A-5");
+        service.create(person("A-5", Type.EXTERNAL));
+        service.archive("A-5");
+        assert service.findAllBy(null, Type.INTERNAL, null, null, null, null, null, true).isEmpty();
+        assert service.findAllBy("A-5", null, null, null, null, null, null, true).getFirst().type() == Type.EXTERNAL;
+
+        var reopened = new XmlPersonRepository(root);
+        assert reopened.findArchivedById("A-2").isPresent();
+        assert reopened.findAll().size() == 2;
+    }
+
+    private static void testSegmentsRollAndKeepHistory(Path dir) throws Exception {
+        var archive = new PersonArchive(dir, 1);
+        archive.append(person("H-1", Type.INTERNAL));
+        archive.append(person("H-1", Type.EXTERNAL));
+        archive.appendAll(List.of(person("H-2", Type.INTERNAL), person("H-3", Type.INTERNAL)));
+
+        try (var s = Files.list(dir)) { assert s.count() == 3; }
+        assert archive.findBy(p -> "H-1".equals(p.personId())).size() == 2;
+        assert archive.findById("H-1").orElseThrow().person().type() == Type.EXTERNAL;
+
+        Files.write(dir.resolve("segment-000003.gz"), new byte[] {0x1f, (byte) 0x8b, 8}, StandardOpenOption.APPEND);
+        var reopened = new PersonArchive(dir, 1);
+        assert reopened.findBy(p -> true).size() == 4;
+        reopened.append(person("H-4", Type.EXTERNAL));
+        assert reopened.findBy(p -> true).size() == 5;
+    }
+
+    private static void cleanup(Path root) throws IOException {
+        try (var walk = Files.walk(root)) {
+            walk.sorted((a, b) -> b.getNameCount() - a.getNameCount())
+                    .forEach(p -> { try { Files.deleteIfExists(p); } catch (IOException ignored) {} });
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package tests;
+
+import main.dto.Person;
+import main.dto.PersonChange;
+import main.enums.ChangeKind;
+import main.enums.Type;
+import main.repository.ChangeLog;
+import main.repository.XmlPersonRepository;
+import main.service.ChangeFeed;
+import main.service.PersonService;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+public class ChangeFeedTests {
+
+    public static void main(String[] args) throws Exception {
+        Path tempRoot = Files.createTempDirectory("people-cdc-tests");
+        try {
+            runAll(tempRoot);
+            System.out.println("ChangeFeedTests: ALL PASSED");
+        } finally {
+            cleanup(tempRoot);
+        }
+    }
+
+    private static void runAll(Path root) throws Exception {
+        Path logFile = root.resolve("changes.log");
+        Person p1 = new Person("C-1", Type.INTERNAL, "Anna", "Nowak",
+                "+48500500500", "anna.nowak@example.com", "72030663621");
+
+        try (ChangeFeed feed = new ChangeFeed(new ChangeLog(logFile))) {
+            PersonService service = new PersonService(new XmlPersonRepository(root), feed);
+            ChangeFeed.Subscription live = feed.subscribe(2);
+
+            service.create(p1);
+            service.modify(p1.withType(Type.EXTERNAL));
+            service.modify(p1.withType(Type.EXTERNAL).withMobile("+48600600600"));
+            service.remove(p1.personId());
+            assert !service.remove(p1.personId());
+
+            PersonChange c1 = live.poll(1, TimeUnit.SECONDS);
+            assert c1.sequence() == 1 && c1.kind() == ChangeKind.CREATE && c1.before() == null;
+            PersonChange c2 = live.poll(1, TimeUnit.SECONDS);
+            assert c2.sequence() == 2 && c2.kind() == ChangeKind.UPDATE;
+            assert c2.before().type() == Type.INTERNAL && c2.after().type() == Type.EXTERNAL;
+            PersonChange c3 = live.poll(1, TimeUnit.SECONDS);
+            assert c3.sequence() == 3;
+            PersonChange c4 = live.poll(1, TimeUnit.SECONDS);
+            assert c4.sequence() == 4 && c4.kind() == ChangeKind.REMOVE && c4.after() == null;
+            assert live.poll(10, TimeUnit.MILLISECONDS) == null;
+        }
+
+        try (ChangeFeed feed = new ChangeFeed(new ChangeLog(logFile))) {
+            assert feed.lastSequence() == 4;
+            ChangeFeed.Subscription replay = feed.subscribe(3, 16);
+            assert replay.poll(1, TimeUnit.SECONDS).sequence() == 3;
+            assert replay.poll(1, TimeUnit.SECONDS).sequence() == 4;
+
+            PersonService service = new PersonService(new XmlPersonRepository(root), feed);
+            service.create(p1);
+            PersonChange c5 = replay.poll(1, TimeUnit.SECONDS);
+            assert c5.sequence() == 5 && c5.after().equals(p1);
+        }
+
+        testIndexedReadFromMiddle(root.resolve("big.log"));
+        testFailedPublishRollsBack(root.resolve("rollback"), false);
+        testFailedPublishRollsBack(root.resolve("rollback-archiving"), true);
+    }
+
+    private static void testIndexedReadFromMiddle(Path logFile) throws Exception {
+        Person p = new Person("B-1", Type.INTERNAL, "Ewa", "Kowalska",
+                "+48600600600", "ewa.kowalska@example.com", "44051401359");
+        try (ChangeLog log = new ChangeLog(logFile)) {
+            for (long seq = 1; seq <= 1000; seq++) {
+                log.append(new PersonChange(seq, ChangeKind.UPDATE, p.personId(), p, p, Instant.now()));
+            }
+        }
+        try (ChangeLog log = new ChangeLog(logFile)) {
+            assert log.lastSequence() == 1000;
+            var slice = log.read(700, 5);
+            assert slice.size() == 5 && slice.getFirst().sequence() == 700 && slice.getLast().sequence() == 704;
+            assert log.read(1000, 5).size() == 1;
+            log.append(new PersonChange(1001, ChangeKind.REMOVE, p.personId(), p, null, Instant.now()));
+            assert log.read(1001, 5).getFirst().kind() == ChangeKind.REMOVE;
+        }
+
+        // a crash can leave a record cut short followed by zero-filled blocks
+        long intact = Files.size(logFile);
+        try (ChangeLog log = new ChangeLog(logFile)) {
+            log.append(new PersonChange(1002, ChangeKind.CREATE, p.personId(), null, p, Instant.now()));
+        }
+        try (var ch = FileChannel.open(logFile, StandardOpenOption.WRITE)) {
+            ch.truncate(Files.size(logFile) - 3);
+        }
+        Files.write(logFile, new byte[64], StandardOpenOption.APPEND);
+        try (ChangeLog log = new ChangeLog(logFile)) {
+            assert log.lastSequence() == 1001;
+            assert Files.size(logFile) == intact;
+            log.append(new PersonChange(1002, ChangeKind.CREATE, p.personId(), null, p, Instant.now()));
+        }
+        try (ChangeLog log = new ChangeLog(logFile)) {
+            assert log.lastSequence() == 1002 && log.read(1002, 5).getFirst().after().equals(p);
+        }
+    }
+
+    private static void testFailedPublishRollsBack(Path root, boolean archiveOnRemove) throws Exception {
+        Person p = new Person("F-1", Type.EXTERNAL, "Jan", "Wiśniewski",
+                "+48700700700", "jan.wisniewski@example.com", "02070803628");
+        var repo = new XmlPersonRepository(root, archiveOnRemove);
+        ChangeFeed feed = new ChangeFeed(new ChangeLog(root.resolve("changes.log")));
+        PersonService service = new PersonService(repo, feed);
+        service.create(p);
+        feed.close();
+
+        try {
+            service.modify(p.withType(Type.INTERNAL));
+            assert false : "publish to a closed log should fail";
+        } catch (IOException expected) {
+            // the update must have been reverted
+        }
+        assert repo.findById("F-1").orElseThrow().type() == Type.EXTERNAL;
+
+        try {
+            service.remove("F-1");
+            assert false : "publish to a closed log should fail";
+        } catch (IOException expected) {
+            // the remove must not have been applied
+        }
+        assert repo.findById("F-1").isPresent();
+
+        try {
+            service.create(new Person("F-2", Type.INTERNAL, "Jan", "Wiśniewski",
+                    "+48700700700", "jan.wisniewski@example.com", "02070803628"));
+            assert false : "publish to a closed log should fail";
+        } catch (IOException expected) {
+            // the create must have been purged
+        }
+        assert repo.findById("F-2").isEmpty();
+        assert repo.findArchivedBy(x -> true).isEmpty() : "a rolled-back change left an archived copy";
+    }
+
+    private static void cleanup(Path root) throws IOException {
+        try (var walk = Files.walk(root)) {
+            walk.sorted((a, b) -> b.getNameCount() - a.getNameCount())
+                    .forEach(p -> { try { Files.deleteIfExists(p); } catch (IOException ignored) {} });
+        }
+    }
+}
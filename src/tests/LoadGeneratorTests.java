@@ -0,0 +1,72 @@
+package tests;
+
+import main.loadtest.LatencyHistogram;
+import main.loadtest.LoadConfig;
+import main.loadtest.LoadGenerator;
+import main.loadtest.LoadReport;
+
+import java.io.IOException;
+import java.nio.file.*;
+
+public class LoadGeneratorTests {
+
+    public static void main(String[] args) throws Exception {
+        testHistogramPercentiles();
+
+        Path tempRoot = Files.createTempDirectory("people-load-tests");
+        try {
+            testRunRecordAndReplay(tempRoot);
+            System.out.println("LoadGeneratorTests: ALL PASSED");
+        } finally {
+            cleanup(tempRoot);
+        }
+    }
+
+    private static void testHistogramPercentiles() {
+        var h = new LatencyHistogram();
+        for (long v = 1; v <= 100_000; v++) h.record(v * 1_000);
+
+        assert h.count() == 100_000;
+        assert h.max() == 100_000_000;
+        assertWithinOnePercent(h.percentile(50), 50_000_000);
+        assertWithinOnePercent(h.percentile(99), 99_000_000);
+        assertWithinOnePercent(h.percentile(99.9), 99_900_000);
+        assert h.percentile(100) == h.max();
+
+        var small = new LatencyHistogram();
+        small.record(7);
+        small.record(3);
+        assert small.percentile(50) == 3 && small.percentile(100) == 7;
+    }
+
+    private static void assertWithinOnePercent(long actual, long expected) {
+        assert Math.abs(actual - expected) <= expected / 100 : actual + " vs " + expected;
+    }
+
+    private static void testRunRecordAndReplay(Path root) throws Exception {
+        Path data = root.resolve("data");
+        Path trace = root.resolve("trace.tsv");
+
+        LoadReport recorded = new LoadGenerator(LoadConfig.fromArgs(
+                "--root=" + data, "--dataset=20", "--mix=60/30/10", "--threads=3",
+                "--duration=PT0.3S", "--record=" + trace)).run();
+        long ops = recorded.total().count();
+        assert ops > 0;
+        assert recorded.totalErrors() == 0 : recorded.format();
+        assert recorded.format().contains("TOTAL");
+        try (var s = Files.newBufferedReader(trace)) { assert s.lines().count() == ops; }
+
+        LoadReport replayed = new LoadGenerator(LoadConfig.fromArgs(
+                "--root=" + data, "--dataset=20", "--threads=2", "--virtual=true",
+                "--replay=" + trace)).run();
+        assert replayed.total().count() == ops;
+        assert replayed.totalErrors() == 0 : replayed.format();
+    }
+
+    private static void cleanup(Path root) throws IOException {
+        try (var walk = Files.walk(root)) {
+            walk.sorted((a, b) -> b.getNameCount() - a.getNameCount())
+                    .forEach(p -> { try { Files.deleteIfExists(p); } catch (IOException ignored) {} });
+        }
+    }
+}
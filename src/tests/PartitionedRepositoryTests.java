@@ -0,0 +1,141 @@
+package tests;
+
+import main.enums.Type;
+import main.repository.PartitionedPersonRepository;
+import main.service.PersonService;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static tests.TestData.person;
+
+public class PartitionedRepositoryTests {
+
+    public static void main(String[] args) throws Exception {
+        Path tempRoot = Files.createTempDirectory("people-partitioned-tests");
+        try {
+            runAll(tempRoot);
+            System.out.println("PartitionedRepositoryTests: ALL PASSED");
+        } finally {
+            cleanup(tempRoot);
+        }
+    }
+
+    private static void runAll(Path root) throws Exception {
+        List<Path> roots = List.of(root.resolve("disk0"), root.resolve("disk1"), root.resolve("disk2"));
+        int n = 90;
+
+        try (var repo = new PartitionedPersonRepository(roots)) {
+            PersonService service = new PersonService(repo);
+            for (int i = 0; i < n; i++) {
+                service.create(person("H-" + i, i % 3 == 0 ? Type.EXTERNAL : Type.INTERNAL));
+            }
+            for (Path r : roots) assert filesUnder(r) > 0;
+            assertEachStoredOnce(root, n);
+
+            assert service.findAllBy(null, null, null, null, null, null, null).size() == n;
+            assert service.findAllBy(null, Type.EXTERNAL, null, null, null, null, null).size() == n / 3;
+            assert service.count(Type.INTERNAL) == 2L * n / 3;
+
+            service.modify(person("H-1", Type.EXTERNAL));
+            assert service.find("H-1", null, null, null, null, null, null).orElseThrow().type() == Type.EXTERNAL;
+            assert service.remove("H-2");
+            assert service.find("H-2", null, null, null, null, null, null).isEmpty();
+            assertEachStoredOnce(root, n - 1);
+
+            int moved = repo.addRoot(root.resolve("disk3"));
+            assert moved > 0 && moved < n / 2 : "moved " + moved;
+            assert filesUnder(root.resolve("disk3")) == moved;
+            assertEachStoredOnce(root, n - 1);
+            assert repo.findAll().size() == n - 1;
+            for (int i = 0; i < n; i++) {
+                assert repo.findById("H-" + i).isPresent() == (i != 2);
+            }
+            assert repo.rebalance() == 0;
+
+            AtomicBoolean done = new AtomicBoolean();
+            AtomicReference<String> failure = new AtomicReference<>();
+            Thread reader = new Thread(() -> {
+                while (!done.get()) {
+                    try {
+                        int seen = repo.findAll().size();
+                        if (seen != n - 1) failure.set("expected " + (n - 1) + " records, saw " + seen);
+                        repo.create(person("H-1", Type.EXTERNAL));
+                        failure.set("created a duplicate of H-1");
+                    } catch (IOException expected) {
+                        // H-1 exists, wherever it currently lives
+                    }
+                }
+            });
+            reader.start();
+            assert repo.addRoot(root.resolve("disk4")) > 0;
+            done.set(true);
+            reader.join();
+            assert failure.get() == null : failure.get();
+            assertEachStoredOnce(root, n - 1);
+
+            for (int i = 9; i >= 3; i--) assert repo.archive("H-" + i);
+            var archived = repo.findArchivedBy(p -> true);
+            assert archived.size() == 7;
+            for (int i = 1; i < archived.size(); i++) {
+                assert !archived.get(i).archivedAt().isBefore(archived.get(i - 1).archivedAt());
+            }
+        }
+
+        List<Path> reordered = List.of(root.resolve("disk3"), root.resolve("disk4"), root.resolve("disk1"),
+                root.resolve("disk0"), root.resolve("disk2"));
+        try (var reopened = new PartitionedPersonRepository(reordered)) {
+            assert reopened.rebalance() == 0;
+            assert reopened.findById("H-1").orElseThrow().type() == Type.EXTERNAL;
+        }
+
+        // a moved root, or one reached through a symlink, keeps owning the same records
+        Files.move(root.resolve("disk2"), root.resolve("moved"));
+        List<Path> relocated = new ArrayList<>();
+        for (Path r : reordered) {
+            Path target = r.endsWith("disk2") ? root.resolve("moved") : r;
+            relocated.add(Files.createSymbolicLink(root.resolve("link-" + r.getFileName()), target));
+        }
+        try (var reopened = new PartitionedPersonRepository(relocated)) {
+            for (int i = 0; i < n; i++) {
+                assert reopened.findById("H-" + i).isPresent() == (i != 2 && (i < 3 || i > 9)) : "H-" + i;
+            }
+            assert reopened.rebalance() == 0;
+        }
+
+        try {
+            new PartitionedPersonRepository(List.of(root.resolve("disk0"), root.resolve("link-disk0"))).close();
+            assert false : "the same root twice must be rejected";
+        } catch (IllegalArgumentException expected) {
+            // both paths carry the same partition id
+        }
+    }
+
+    private static long filesUnder(Path dir) throws IOException {
+        try (var walk = Files.walk(dir)) {
+            return walk.filter(p -> p.toString().endsWith(".xml")).count();
+        }
+    }
+
+    private static void assertEachStoredOnce(Path dir, int expected) throws IOException {
+        long distinct;
+        long total;
+        try (var walk = Files.walk(dir)) {
+            var names = walk.filter(p -> p.toString().endsWith(".xml")).map(p -> p.getFileName().toString()).toList();
+            total = names.size();
+            distinct = names.stream().distinct().count();
+        }
+        assert total == expected && distinct == expected : total + "/" + distinct;
+    }
+
+    private static void cleanup(Path root) throws IOException {
+        try (var walk = Files.walk(root)) {
+            walk.sorted((a, b) -> b.getNameCount() - a.getNameCount())
+                    .forEach(p -> { try { Files.deleteIfExists(p); } catch (IOException ignored) {} });
+        }
+    }
+}
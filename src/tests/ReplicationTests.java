@@ -0,0 +1,125 @@
+package tests;
+
+import main.enums.Type;
+import main.replication.ReplicationFollower;
+import main.replication.ReplicationLeader;
+import main.repository.ChangeLog;
+import main.repository.XmlPersonRepository;
+import main.service.ChangeFeed;
+import main.service.PersonService;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static tests.TestData.person;
+
+public class ReplicationTests {
+
+    public static void main(String[] args) throws Exception {
+        Path tempRoot = Files.createTempDirectory("people-replication-tests");
+        try {
+            runAll(tempRoot);
+            System.out.println("ReplicationTests: ALL PASSED");
+        } finally {
+            cleanup(tempRoot);
+        }
+    }
+
+    private static void runAll(Path root) throws Exception {
+        Path leaderRoot = root.resolve("leader");
+        var leaderRepo = new XmlPersonRepository(leaderRoot);
+        leaderRepo.create(person("R-0", Type.INTERNAL));  // predates the change log
+
+        var repoA = new XmlPersonRepository(root.resolve("a"));
+        var repoB = new XmlPersonRepository(root.resolve("b"));
+        ReplicationFollower followerB;
+        int port;
+        try (ChangeFeed feed = new ChangeFeed(new ChangeLog(leaderRoot.resolve("changes.log")))) {
+            PersonService leader = new PersonService(leaderRepo, feed);
+            leader.create(person("R-1", Type.INTERNAL));
+
+            ReplicationLeader server = new ReplicationLeader(leaderRepo, feed, 0);
+            port = server.port();
+
+            Path offsetA = root.resolve("a").resolve("replication.offset");
+            var followerA = new ReplicationFollower(repoA, "localhost", port, offsetA);
+            followerB = new ReplicationFollower(repoB, "localhost", port, root.resolve("b").resolve("replication.offset"));
+
+            leader.create(person("R-2", Type.EXTERNAL));
+            leader.modify(person("R-1", Type.EXTERNAL));
+            leader.remove("R-2");
+
+            assert followerA.awaitSequence(4, 5, TimeUnit.SECONDS);
+            assert followerB.awaitSequence(4, 5, TimeUnit.SECONDS);
+            for (var repo : new XmlPersonRepository[] {repoA, repoB}) {
+                assert repo.findAll().size() == 2;
+                assert repo.findById("R-0").isPresent();
+                assert repo.findById("R-1").orElseThrow().type() == Type.EXTERNAL;
+            }
+
+            followerA.close();
+            leader.create(person("R-3", Type.INTERNAL));
+            followerA = new ReplicationFollower(repoA, "localhost", port, offsetA);
+            assert followerA.awaitSequence(5, 5, TimeUnit.SECONDS);
+            assert repoA.findById("R-3").isPresent();
+
+            server.close();
+            leader.modify(person("R-3", Type.EXTERNAL));
+            server = new ReplicationLeader(leaderRepo, feed, port);
+            assert followerB.awaitSequence(6, 10, TimeUnit.SECONDS);
+            assert repoB.findById("R-3").orElseThrow().type() == Type.EXTERNAL;
+            assert followerB.lag() == 0;
+
+            followerA.close();
+            server.close();
+        }
+
+        // the leader's log is replaced: sequences restart, so follower B must resync from a snapshot
+        Files.delete(leaderRoot.resolve("changes.log"));
+        repoB.create(person("X-1", Type.INTERNAL));  // local-only record the resync must drop
+        try (ChangeFeed feed = new ChangeFeed(new ChangeLog(leaderRoot.resolve("changes.log")))) {
+            PersonService leader = new PersonService(leaderRepo, feed);
+            leader.remove("R-0");
+            // listing the records outlasts the follower's read timeout; heartbeats keep it connected
+            var slowSource = new XmlPersonRepository(leaderRoot) {
+                @Override
+                public List<String> listIds() throws IOException {
+                    try {
+                        Thread.sleep(3_000);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return super.listIds();
+                }
+            };
+            ReplicationLeader server = new ReplicationLeader(slowSource, feed, port);
+            assert awaitSameIds(leaderRepo, repoB, 10_000) : repoB.listIds();
+            leader.create(person("R-4", Type.EXTERNAL));
+            assert awaitSameIds(leaderRepo, repoB, 5_000) : repoB.listIds();
+            assert followerB.awaitSequence(2, 5, TimeUnit.SECONDS) && followerB.appliedSequence() == 2;
+
+            followerB.close();
+            server.close();
+        }
+    }
+
+    private static boolean awaitSameIds(XmlPersonRepository expected, XmlPersonRepository actual, long millis)
+            throws IOException, InterruptedException {
+        long deadline = System.currentTimeMillis() + millis;
+        while (System.currentTimeMillis() < deadline) {
+            if (Set.copyOf(expected.listIds()).equals(Set.copyOf(actual.listIds()))) return true;
+            Thread.sleep(20);
+        }
+        return false;
+    }
+
+    private static void cleanup(Path root) throws IOException {
+        try (var walk = Files.walk(root)) {
+            walk.sorted((a, b) -> b.getNameCount() - a.getNameCount())
+                    .forEach(p -> { try { Files.deleteIfExists(p); } catch (IOException ignored) {} });
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package tests;
+
+import main.dto.Person;
+import main.enums.Type;
+import main.repository.SnapshotPersonRepository;
+import main.repository.XmlPersonRepository;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static tests.TestData.person;
+
+public class SnapshotRepositoryTests {
+
+    public static void main(String[] args) throws Exception {
+        Path tempRoot = Files.createTempDirectory("people-snapshot-tests");
+        try {
+            testSnapshotIsPointInTime(tempRoot.resolve("pit"));
+            testTypeMoveIsNeverSeenTwiceOrMissing(tempRoot.resolve("move"));
+            testWarmUpServesBeforeReady(tempRoot.resolve("warm"));
+            testWarmUpFailureIsReported(tempRoot.resolve("broken"));
+            System.out.println("SnapshotRepositoryTests: ALL PASSED");
+        } finally {
+            cleanup(tempRoot);
+        }
+    }
+
+    private static void testSnapshotIsPointInTime(Path root) throws Exception {
+        var repo = new SnapshotPersonRepository(new XmlPersonRepository(root));
+        repo.create(person("S-1", Type.INTERNAL));
+
+        try (var snap = repo.snapshot()) {
+            repo.create(person("S-2", Type.EXTERNAL));
+            repo.update(person("S-1", Type.EXTERNAL));
+            repo.remove("S-1");
+
+            assert snap.findAll().size() == 1;
+            assert snap.findById("S-1").orElseThrow().type() == Type.INTERNAL;
+            assert snap.findById("S-2").isEmpty();
+        }
+
+        assert repo.findById("S-1").isEmpty();
+        assert repo.findAll(Type.EXTERNAL).size() == 1;
+        assert new SnapshotPersonRepository(new XmlPersonRepository(root)).findAll().size() == 1;
+    }
+
+    private static void testTypeMoveIsNeverSeenTwiceOrMissing(Path root) throws Exception {
+        var repo = new SnapshotPersonRepository(new XmlPersonRepository(root));
+        repo.create(person("M-1", Type.INTERNAL));
+
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<String> failure = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            while (!done.get()) {
+                try {
+                    List<Person> all = repo.findAll();
+                    if (all.size() != 1) failure.set("expected 1 record, saw " + all.size());
+                } catch (IOException e) {
+                    failure.set(e.toString());
+                }
+            }
+        });
+        reader.start();
+        for (int i = 0; i < 50; i++) {
+            repo.update(person("M-1", i % 2 == 0 ? Type.EXTERNAL : Type.INTERNAL));
+        }
+        done.set(true);
+        reader.join();
+        assert failure.get() == null : failure.get();
+    }
+
+    private static void testWarmUpServesBeforeReady(Path root) throws Exception {
+        var xml = new XmlPersonRepository(root);
+        for (int i = 0; i < 20; i++) {
+            xml.create(person("W-" + i, i % 2 == 0 ? Type.INTERNAL : Type.EXTERNAL));
+        }
+
+        var repo = SnapshotPersonRepository.warmUp(xml, 2, 40);
+        assert !repo.isReady();
+        assert repo.findById("W-7").orElseThrow().type() == Type.EXTERNAL;
+        assert repo.findAll().size() == 20;
+
+        repo.remove("W-19");
+        repo.update(person("W-18", Type.EXTERNAL));
+        repo.create(person("W-20", Type.INTERNAL));
+
+        assert repo.awaitReady(5, TimeUnit.SECONDS);
+        assert repo.progress().ready() && repo.progress().loaded() == repo.progress().total();
+        assert repo.findAll().size() == 20;
+        assert repo.findById("W-19").isEmpty();
+        assert repo.findById("W-18").orElseThrow().type() == Type.EXTERNAL;
+        assert repo.count(Type.INTERNAL) == 10;
+    }
+
+    private static void testWarmUpFailureIsReported(Path root) throws Exception {
+        var xml = new XmlPersonRepository(root) {
+            @Override
+            public List<String> listIds() throws IOException {
+                throw new IOException("disk unavailable");
+            }
+        };
+        xml.create(person("E-1", Type.INTERNAL));
+
+        var repo = SnapshotPersonRepository.warmUp(xml, 1, 0);
+        try {
+            repo.awaitReady(5, TimeUnit.SECONDS);
+            assert false : "warm-up should have failed";
+        } catch (IOException expected) {
+            // reported below as well
+        }
+        assert !repo.progress().ready();
+        assert "disk unavailable".equals(repo.progress().failure());
+        assert repo.findById("E-1").isPresent();
+    }
+
+    private static void cleanup(Path root) throws IOException {
+        try (var walk = Files.walk(root)) {
+            walk.sorted((a, b) -> b.getNameCount() - a.getNameCount())
+                    .forEach(p -> { try { Files.deleteIfExists(p); } catch (IOException ignored) {} });
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package tests;
+
+import main.dto.Person;
+import main.enums.Type;
+import main.loadtest.RandomPersons;
+
+import java.util.Random;
+
+/** Shared fixtures for the test programs. */
+final class TestData {
+    private TestData() {}
+
+    /** A valid person with details derived from {@code id}, so the same id always gets the same data. */
+    static Person person(String id, Type type) {
+        return RandomPersons.person(id, type, new Random(id.hashCode()));
+    }
+}